@@ -0,0 +1,86 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Project: Coursera Algorithms by Standford University: Shortest Paths Revisited, NP-Complete Problems and What To Do About Them.
+ * Description: Records the reports of SolverMetrics as JFR events: coursera.SolverPhase per finished phase and
+ *              coursera.SolverProgress per progress report. They are recorded when a flight recording enables them, e.g.
+ *              java -XX:StartFlightRecording=filename=solvers.jfr APSPFinder, then jfr print --events coursera.* solvers.jfr
+ *              See SolverEvents for how to build and load it.
+ *
+ * @author : Zitao He
+ * @date : 2026-10-19 01:50
+ **/
+public class JfrSolverEvents implements SolverEvents {
+
+    @Name("coursera.SolverPhase")
+    @Label("Solver Phase")
+    @Category({"Coursera Algorithms", "Solvers"})
+    @Description("Parse, preprocess or solve phase of a solver run")
+    static class PhaseEvent extends Event {
+        @Label("Solver")
+        String solver;
+        @Label("Phase")
+        String phase;
+    }
+
+    @Name("coursera.SolverProgress")
+    @Label("Solver Progress")
+    @Category({"Coursera Algorithms", "Solvers"})
+    @Description("Counters of a running solver")
+    static class ProgressEvent extends Event {
+        @Label("Solver")
+        String solver;
+        @Label("Floyd-Warshall Phases")
+        long fwPhases;
+        @Label("Floyd-Warshall Relaxations")
+        long fwRelaxations;
+        @Label("2SAT Flips")
+        long twoSatFlips;
+        @Label("2SAT Restarts")
+        long twoSatRestarts;
+        @Label("2SAT Unsatisfied Clauses")
+        long twoSatUnsatisfied;
+        @Label("TSP Cities Placed")
+        long tspCitiesPlaced;
+        @Label("TSP Candidates Examined")
+        long tspCandidates;
+    }
+
+    @Override
+    public Object beginPhase(){
+        PhaseEvent event = new PhaseEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void endPhase(Object phaseEvent, String solver, SolverMetrics.Phase phase){
+        PhaseEvent event = (PhaseEvent) phaseEvent;
+        event.end();
+        if (event.shouldCommit()){
+            event.solver = solver;
+            event.phase = phase.name();
+            event.commit();
+        }
+    }
+
+    @Override
+    public void progress(SolverMetrics metrics){
+        ProgressEvent event = new ProgressEvent();
+        if (event.shouldCommit()){
+            event.solver = metrics.getSolver();
+            event.fwPhases = metrics.get(SolverMetrics.Counter.FW_PHASES);
+            event.fwRelaxations = metrics.get(SolverMetrics.Counter.FW_RELAXATIONS);
+            event.twoSatFlips = metrics.get(SolverMetrics.Counter.TWO_SAT_FLIPS);
+            event.twoSatRestarts = metrics.get(SolverMetrics.Counter.TWO_SAT_RESTARTS);
+            event.twoSatUnsatisfied = metrics.get(SolverMetrics.Counter.TWO_SAT_UNSATISFIED);
+            event.tspCitiesPlaced = metrics.get(SolverMetrics.Counter.TSP_CITIES_PLACED);
+            event.tspCandidates = metrics.get(SolverMetrics.Counter.TSP_CANDIDATES);
+            event.commit();
+        }
+    }
+}
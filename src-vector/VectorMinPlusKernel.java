@@ -0,0 +1,36 @@
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Project: Coursera Algorithms by Standford University: Shortest Paths Revisited, NP-Complete Problems and What To Do About Them.
+ * Description: Min-plus kernel (see MinPlusKernel) on the incubating Vector API: dik is broadcast once, then every step
+ *              loads a vector of the pivot row and of the row, adds and takes the lane-wise min. The species is the
+ *              preferred one of the machine, chosen at run time (8 ints with AVX2, 16 with AVX-512), the tail runs scalar.
+ *              Distances are ints, so IntVector covers every row. Needs JDK 16+ and --add-modules jdk.incubator.vector,
+ *              see MinPlusKernel for how to build and load it.
+ *
+ * @author : Zitao He
+ * @date : 2026-10-19 01:20
+ **/
+public class VectorMinPlusKernel implements MinPlusKernel {
+
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    @Override
+    public void relaxRow(int[] row, int[] pivotRow, int dik, int width){
+        IntVector through = IntVector.broadcast(SPECIES, dik);
+        int j = 0;
+        for (int upperBound = SPECIES.loopBound(width); j < upperBound; j += SPECIES.length()){
+            IntVector candidate = IntVector.fromArray(SPECIES, pivotRow, j).add(through);
+            IntVector.fromArray(SPECIES, row, j).min(candidate).intoArray(row, j);
+        }
+        for (; j < width; j ++){
+            row[j] = Math.min(row[j], dik + pivotRow[j]);
+        }
+    }
+
+    @Override
+    public String getName(){
+        return "vector (" + SPECIES.vectorBitSize() + " bit)";
+    }
+}
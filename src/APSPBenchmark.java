@@ -0,0 +1,182 @@
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Project: Coursera Algorithms by Standford University: Shortest Paths Revisited, NP-Complete Problems and What To Do About Them.
+ * Description: Benchmark of APSPFinder.runAPSP() on the bundled graphs g1.txt to g3.txt and on synthetic graphs.
+ *              It reports the run time for 1, 2, 4, 8, ... threads up to the number of available processors
+ *              (or the thread counts given on the command line) and checks that every thread count gives the same answer.
+ *              It then compares APSPFinder.updateEdge() with a full runAPSP() after random edge edits on g3.txt,
+ *              and the scalar min-plus kernel of Floyd-Warshall with MinPlusKernel.load() (the vector kernel if it
+ *              is on the class path and jdk.incubator.vector is added, see MinPlusKernel) in ns per n^3 relaxations.
+ *
+ *              Usage: java APSPBenchmark [threadCount ...]
+ *
+ * @author : Zitao He
+ * @date : 2026-10-18 11:05
+ **/
+public class APSPBenchmark {
+
+    private static final int WARMUP_ROUNDS = 2;
+    private static final int MEASURED_ROUNDS = 3;
+    private static final int EDGE_EDITS = 20;
+
+    /**
+     * Build a random graph without negative cycles so that Floyd-Warshall always runs all its rounds.
+     * @param numVertices number of vertices
+     * @param numEdges number of edges (parallel edges are possible)
+     * @param seed random seed, the same seed always gives the same graph
+     * @return edge list of the graph
+     */
+    public static List<GraphEdge> syntheticGraph(int numVertices, int numEdges, long seed){
+        Random rand = new Random(seed);
+        List<GraphEdge> edges = new ArrayList<>(numEdges);
+        for (int e = 0; e < numEdges; e ++){
+            int start = rand.nextInt(numVertices) + 1;
+            int end = rand.nextInt(numVertices) + 1;
+            edges.add(new GraphEdge(start, end, rand.nextInt(100)));
+        }
+        return edges;
+    }
+
+    /**
+     * Time runAPSP() for one finder and one thread count.
+     * @return best run time over the measured rounds in milliseconds
+     */
+    private static double timeRun(APSPFinder finder, int threads, int rounds){
+        finder.setParallelism(threads);
+        double best = Double.MAX_VALUE;
+        for (int r = 0; r < rounds; r ++){
+            long start = System.nanoTime();
+            finder.runAPSP();
+            best = Math.min(best, (System.nanoTime() - start) / 1e6);
+        }
+        return best;
+    }
+
+    private static void runScaling(String name, APSPFinder finder, List<Integer> threadCounts, int rounds){
+        timeRun(finder, 1, WARMUP_ROUNDS);
+        String expected = finder.getResult().toString();
+        double baseline = 0;
+        for (int threads : threadCounts){
+            double millis = timeRun(finder, threads, rounds);
+            if (threads == threadCounts.get(0)){
+                baseline = millis;
+            }
+            if (!finder.getResult().toString().equals(expected)){
+                throw new IllegalStateException("Error: " + name + " gives a different answer with " + threads + " threads.");
+            }
+            System.out.printf("%-14s threads=%-3d time=%10.1f ms  speedup=%5.2fx  %s%n",
+                    name, threads, millis, baseline / millis, expected);
+        }
+    }
+
+    /**
+     * Apply random edge insertions and decreases that keep the graph free of negative cycles. After every edit the
+     * incremental update is timed, then a full runAPSP() on the same edited graph, and both results must agree.
+     */
+    private static void runIncremental(String name, APSPFinder finder, int numVertices, int edits, long seed){
+        finder.setParallelism(1);
+        finder.runAPSP();
+        Random rand = new Random(seed);
+        double incrementalMillis = 0;
+        double fullMillis = 0;
+        for (int e = 0; e < edits; e ++){
+            int start = rand.nextInt(numVertices) + 1;
+            int end = rand.nextInt(numVertices) + 1;
+            int distance = finder.getDistance(start, end);
+            int back = finder.getDistance(end, start);
+            int length = distance == APSPFinder.UNREACHABLE ? rand.nextInt(100) : distance - rand.nextInt(20);
+            if (back != APSPFinder.UNREACHABLE){
+                length = Math.max(length, -back); //d(end, start) + length >= 0, no negative cycle
+            }
+            if (distance != APSPFinder.UNREACHABLE){
+                length = Math.min(length, distance); //never longer than an existing edge start->end
+            }
+
+            long time = System.nanoTime();
+            finder.updateEdge(new GraphEdge(start, end, length));
+            incrementalMillis += (System.nanoTime() - time) / 1e6;
+            String expected = finder.getResult().toString();
+
+            time = System.nanoTime();
+            finder.runAPSP();
+            fullMillis += (System.nanoTime() - time) / 1e6;
+            if (!finder.getResult().toString().equals(expected)){
+                throw new IllegalStateException("Error: incremental update of " + name + " gives a different answer.");
+            }
+        }
+        System.out.printf("%-14s edits=%-4d incremental=%8.3f ms/edit  full=%8.1f ms/edit  speedup=%7.1fx  %s%n",
+                name, edits, incrementalMillis / edits, fullMillis / edits, fullMillis / incrementalMillis, finder.getResult());
+    }
+
+    /**
+     * Time the Floyd-Warshall backend with every kernel on one thread. All distances must be the same for every kernel.
+     */
+    private static void runKernels(String name, APSPFinder finder, int numVertices, List<MinPlusKernel> kernels, int rounds){
+        finder.setBackend(APSPFinder.Backend.FLOYD_WARSHALL);
+        long expected = 0;
+        double baseline = 0;
+        for (MinPlusKernel kernel : kernels){
+            finder.setMinPlusKernel(kernel);
+            timeRun(finder, 1, WARMUP_ROUNDS);
+            double millis = timeRun(finder, 1, rounds);
+            long checksum = distanceChecksum(finder, numVertices);
+            if (kernel == kernels.get(0)){
+                expected = checksum;
+                baseline = millis;
+            }
+            else if (checksum != expected){
+                throw new IllegalStateException("Error: " + name + " gives different distances with the " + kernel.getName() + " kernel.");
+            }
+            double nanosPerRelaxation = millis * 1e6 / ((double) numVertices * numVertices * numVertices);
+            System.out.printf("%-14s kernel=%-18s time=%10.1f ms  %6.3f ns/relaxation  speedup=%5.2fx  %s%n",
+                    name, kernel.getName(), millis, nanosPerRelaxation, baseline / millis, finder.getResult());
+        }
+    }
+
+    private static long distanceChecksum(APSPFinder finder, int numVertices){
+        if (finder.getResult().hasNegativeCycle()){
+            return 0;
+        }
+        long checksum = 0;
+        for (int i = 1; i <= numVertices; i ++){
+            for (int j = 1; j <= numVertices; j ++){
+                checksum = checksum * 31 + finder.getDistance(i, j);
+            }
+        }
+        return checksum;
+    }
+
+    public static void main(String[] args) throws FileNotFoundException {
+        List<Integer> threadCounts = new ArrayList<>();
+        for (String arg : args){
+            threadCounts.add(Integer.parseInt(arg));
+        }
+        if (threadCounts.isEmpty()){
+            int processors = Runtime.getRuntime().availableProcessors();
+            for (int threads = 1; threads <= Math.max(processors, 8); threads *= 2){
+                threadCounts.add(threads);
+            }
+        }
+        System.out.println("Available processors: " + Runtime.getRuntime().availableProcessors());
+
+        for (String fileName : new String[]{"data/g1.txt", "data/g2.txt", "data/g3.txt"}){
+            runScaling(fileName, new APSPFinder(fileName), threadCounts, MEASURED_ROUNDS);
+        }
+        runScaling("synthetic-4000", new APSPFinder(4000, syntheticGraph(4000, 200000, 42)), threadCounts, 1);
+        runIncremental("data/g3.txt", new APSPFinder("data/g3.txt"), 1000, EDGE_EDITS, 42);
+
+        List<MinPlusKernel> kernels = new ArrayList<>();
+        kernels.add(new ScalarMinPlusKernel());
+        MinPlusKernel loaded = MinPlusKernel.load();
+        if (!(loaded instanceof ScalarMinPlusKernel)){
+            kernels.add(loaded);
+        }
+        runKernels("data/g3.txt", new APSPFinder("data/g3.txt"), 1000, kernels, MEASURED_ROUNDS);
+        runKernels("synthetic-2000", new APSPFinder(2000, syntheticGraph(2000, 100000, 42)), 2000, kernels, MEASURED_ROUNDS);
+        runKernels("synthetic-4000", new APSPFinder(4000, syntheticGraph(4000, 200000, 42)), 4000, kernels, 1);
+    }
+}
@@ -1,4 +1,3 @@
-import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.*;
@@ -36,129 +35,613 @@ import java.util.*;
  **/
 public class APSPFinder {
 
+    /**
+     * Algorithm used by runAPSP(). AUTO picks Johnson's algorithm when the graph is sparse enough.
+     */
+    public enum Backend { AUTO, FLOYD_WARSHALL, JOHNSON }
+
+    public static final int UNREACHABLE = BlockedFloydWarshall.INFINITY; //distance of a pair without path
+    private static final double JOHNSON_MAX_DENSITY = 0.01; //AUTO uses Johnson below numEdges / numVertices^2 of this
+    private static final int INCREMENTAL_MAX_BATCH_DIVISOR = 8; //updateEdges() recomputes above numVertices / 8 changes
+    private static final int MAX_MATRIX_ENTRIES = Integer.MAX_VALUE - 8; //largest array most JVMs allocate
+
     private int numVertices;
-    private int numEdges;
-    private HashMap<String, GraphEdge> edges; //Edges in this graph
-    private int[][][] solutionMatrix;
+    private CSRGraph graph; //Edges in this graph, parallel edges collapsed to the shortest one
+    private int[] distances; //flat row-major distance matrix, vertex v maps to index v - 1
+    private APSPResult result;
+    private boolean trackPaths; //if true, runAPSP() also fills nextHops
+    private NextHopMatrix nextHops;
+    private APSPSnapshot snapshot; //set by loadSnapshot(), queries then read from the mapped file
+    private int parallelism = 1; //number of threads used by Floyd-Warshall
+    private Backend backend = Backend.AUTO;
+    private MinPlusKernel kernel = new ScalarMinPlusKernel(); //row operation of Floyd-Warshall
+    private SolverMetrics metrics; //null if nothing is counted
 
     /**
      * Constructor of APSP(all pairs shortest path) finder. The file format can be found in class description
      * @param fileInputName file name to be used
      * @throws FileNotFoundException throws error if file not found
+     * @throws InputMismatchException if a line of the file is malformed
      */
     public APSPFinder(String fileInputName) throws FileNotFoundException {
-        Scanner fileScanner;
-        edges = new HashMap<>();
-        try {
-            fileScanner = new Scanner(new File(fileInputName));
-        } catch (IOException e) {
-            throw new FileNotFoundException("Error: Input file is not found.");
+        this(fileInputName, null);
+    }
+
+    /**
+     * Constructor of APSP finder that times the parsing and keeps counting in metrics, see setMetrics().
+     * @param fileInputName file name to be used
+     * @param metrics metrics of the finder, or null
+     * @throws FileNotFoundException throws error if file not found
+     * @throws InputMismatchException if a line of the file is malformed
+     */
+    public APSPFinder(String fileInputName, SolverMetrics metrics) throws FileNotFoundException {
+        this.metrics = metrics;
+        SolverMetrics.PhaseTimer parseTimer = SolverMetrics.startPhase(metrics, SolverMetrics.Phase.PARSE);
+        try (FastInputParser parser = new FastInputParser(fileInputName)) {
+            numVertices = parser.nextInt();
+            int capacity = Math.max(parser.nextInt(), 16); //number of edges given on the first line
+            parser.endLine();
+
+            int[] starts = new int[capacity];
+            int[] ends = new int[capacity];
+            int[] lengths = new int[capacity];
+            int count = 0;
+            while (parser.hasNext()){
+                if (count == starts.length){
+                    starts = Arrays.copyOf(starts, 2 * count);
+                    ends = Arrays.copyOf(ends, 2 * count);
+                    lengths = Arrays.copyOf(lengths, 2 * count);
+                }
+                int line = parser.getLineNumber();
+                starts[count] = parser.nextInt();
+                ends[count] = parser.nextInt();
+                lengths[count] = parser.nextInt();
+                parser.endLine();
+                if (starts[count] < 1 || starts[count] > numVertices || ends[count] < 1 || ends[count] > numVertices){
+                    throw new InputMismatchException("Error: " + fileInputName + " line " + line
+                            + ": edge has a vertex out of range 1.." + numVertices + ".");
+                }
+                count ++;
+            }
+            graph = new CSRGraph(numVertices, starts, ends, lengths, count);
+        } finally {
+            parseTimer.stop();
         }
-        String[] firstLine = fileScanner.nextLine().split(" ");
-        numVertices = Integer.parseInt(firstLine[0]);
-        numEdges = Integer.parseInt(firstLine[1]);
+    }
 
-        while(fileScanner.hasNextLine()){
-            String[] info = fileScanner.nextLine().split(" ");
+    /**
+     * Constructor of APSP finder from an in-memory edge list. If the same edge appears more than once, the shortest one is kept.
+     * @param numVertices number of vertices, vertices are numbered from 1 to numVertices
+     * @param edgeList edges of the graph
+     */
+    public APSPFinder(int numVertices, List<GraphEdge> edgeList){
+        this(CSRGraph.fromEdges(numVertices, edgeList));
+    }
+
+    /**
+     * Constructor of APSP finder from a graph in CSR form.
+     * @param graph graph to solve
+     */
+    public APSPFinder(CSRGraph graph){
+        this.numVertices = graph.getNumVertices();
+        this.graph = graph;
+    }
 
-            int edgeStart = Integer.parseInt(info[0]);
-            int edgeEnd = Integer.parseInt(info[1]);
-            int edgeLength = Integer.parseInt(info[2]);
+    /**
+     * Set the number of threads used by runAPSP(). The result does not depend on it.
+     * @param parallelism number of threads, 1 (the default) runs on the calling thread
+     */
+    public void setParallelism(int parallelism){
+        if (parallelism < 1){
+            throw new IllegalArgumentException("Error: parallelism must be at least 1.");
+        }
+        this.parallelism = parallelism;
+    }
 
-            GraphEdge edge = new GraphEdge(edgeStart, edgeEnd, edgeLength);
-            String key = info[0]+"->"+info[1];
-            edges.put(key, edge);
+    /**
+     * Set the min-plus kernel used by Floyd-Warshall when paths are not tracked. The result does not depend on it.
+     * @param kernel kernel to use, ScalarMinPlusKernel by default, MinPlusKernel.load() gives the fastest available one
+     */
+    public void setMinPlusKernel(MinPlusKernel kernel){
+        if (kernel == null){
+            throw new IllegalArgumentException("Error: kernel must not be null.");
         }
-        solutionMatrix = new int[numVertices+1][numVertices+1][2];
+        this.kernel = kernel;
     }
 
     /**
-     * Run Floyd-Warshall algorithm
+     * Count in metrics: runAPSP() times the negative cycle check and Johnson reweighting as preprocessing
+     * and the Johnson or Floyd-Warshall run as solving, and Floyd-Warshall counts its phases and relaxations.
+     * @param metrics metrics to count in, null (the default) to count nothing
+     */
+    public void setMetrics(SolverMetrics metrics){
+        this.metrics = metrics;
+    }
+
+    /**
+     * Enable path tracking. runAPSP() then also fills a next-hop matrix (2 bytes per pair below 32768 vertices,
+     * 4 bytes per pair above) so that getPath() can answer path queries.
+     * @param trackPaths true to keep shortest paths, false (the default) to keep only distances
+     */
+    public void setPathTracking(boolean trackPaths){
+        this.trackPaths = trackPaths;
+    }
+
+    /**
+     * Choose the algorithm used by runAPSP(). The result does not depend on it.
+     * @param backend algorithm to use, AUTO (the default) decides by edge density
+     */
+    public void setBackend(Backend backend){
+        this.backend = backend;
+    }
+
+    /**
+     * Run all pairs shortest path. Negative cycles are detected first with queue-based Bellman-Ford,
+     * which returns early on graphs that have one. Otherwise sparse graphs run Johnson's algorithm
+     * and dense graphs run Floyd-Warshall (cache-blocked, see BlockedFloydWarshall).
+     * @throws ArithmeticException if path lengths of this graph do not fit into the int distance matrix,
+     *         the finder is left unsolved then (getResult() throws IllegalStateException)
      */
     public void runAPSP(){
-        //HashSet<Integer> diagonalValue = new HashSet<>();
-        //initialize the 3D array for solution matrix
-        for (int i = 1; i <= numVertices; i++){
-            for (int j = 1; j<= numVertices; j++){
-                if (i == j){
-                    solutionMatrix[i][j][0] = 0;
-                }
-                if (edges.containsKey(i+"->"+j)){
-                    solutionMatrix[i][j][0] = edges.get(i+"->"+j).getLength();
+        JohnsonAPSP johnson = new JohnsonAPSP(graph);
+        distances = null;
+        nextHops = null;
+        snapshot = null;
+        result = null;
+        boolean hasPotentials;
+        SolverMetrics.PhaseTimer preprocessTimer = SolverMetrics.startPhase(metrics, SolverMetrics.Phase.PREPROCESS);
+        try {
+            hasPotentials = johnson.computePotentials();
+        } finally {
+            preprocessTimer.stop();
+        }
+        if (!hasPotentials){
+            result = APSPResult.negativeCycle(johnson.getNegativeCycle());
+            return;
+        }
+        checkFitsInMatrix(graph.getMaxAbsLength());
+        if ((long) numVertices * numVertices > MAX_MATRIX_ENTRIES){
+            throw new ArithmeticException("Error: graph too large for the flat distance matrix: " + numVertices + " vertices.");
+        }
+
+        SolverMetrics.PhaseTimer solveTimer = SolverMetrics.startPhase(metrics, SolverMetrics.Phase.SOLVE);
+        try {
+            distances = new int[numVertices * numVertices];
+            if (trackPaths){
+                nextHops = new NextHopMatrix(numVertices);
+            }
+            if (useJohnson()){
+                johnson.run(distances, UNREACHABLE, nextHops);
+            }
+            else {
+                runFloydWarshall(johnson);
+            }
+            result = computeResult();
+        } catch (ArithmeticException e) {
+            distances = null; //the reweighted lengths don't fit, drop the partial matrix
+            nextHops = null;
+            throw e;
+        } finally {
+            solveTimer.stop();
+        }
+    }
+
+    private boolean useJohnson(){
+        if (backend == Backend.AUTO){
+            return (double) graph.getNumEdges() / ((double) numVertices * numVertices) < JOHNSON_MAX_DENSITY;
+        }
+        return backend == Backend.JOHNSON;
+    }
+
+    /**
+     * Floyd-Warshall needs non-negative edge lengths, so it runs on the lengths reweighted with the Johnson potentials
+     * (length + h(u) - h(v)) and the reweighting is undone afterwards.
+     */
+    private void runFloydWarshall(JohnsonAPSP johnson){
+        Arrays.fill(distances, UNREACHABLE);
+        for (int i = 0; i < numVertices; i ++){
+            distances[i * numVertices + i] = 0;
+            if (nextHops != null){
+                nextHops.set(i * numVertices + i, i, 0);
+            }
+        }
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        int[] weights = graph.weights();
+        long maxReducedLength = 0;
+        for (int u = 0; u < numVertices; u ++){
+            for (int e = offsets[u]; e < offsets[u + 1]; e ++){
+                long reduced = weights[e] + johnson.getPotential(u + 1) - johnson.getPotential(targets[e] + 1);
+                maxReducedLength = Math.max(maxReducedLength, reduced);
+            }
+        }
+        checkFitsInMatrix(maxReducedLength);
+        for (int u = 0; u < numVertices; u ++){
+            for (int e = offsets[u]; e < offsets[u + 1]; e ++){
+                int v = targets[e];
+                int index = u * numVertices + v;
+                long reduced = weights[e] + johnson.getPotential(u + 1) - johnson.getPotential(v + 1);
+                if (reduced < distances[index]){ //a positive self-loop never beats the 0 on the diagonal
+                    distances[index] = (int) reduced;
+                    if (nextHops != null){
+                        nextHops.set(index, v, 1);
+                    }
                 }
-                if (i != j && !edges.containsKey(i+"->"+j)){
-                    solutionMatrix[i][j][0] = 999;
+            }
+        }
+
+        BlockedFloydWarshall floydWarshall = new BlockedFloydWarshall(numVertices, distances, parallelism, nextHops);
+        floydWarshall.setKernel(kernel);
+        floydWarshall.setMetrics(metrics);
+        floydWarshall.run();
+
+        for (int i = 0; i < numVertices; i ++){
+            long hi = johnson.getPotential(i + 1);
+            for (int j = 0; j < numVertices; j ++){
+                int index = i * numVertices + j;
+                if (distances[index] != UNREACHABLE){
+                    distances[index] = (int) (distances[index] - hi + johnson.getPotential(j + 1));
                 }
             }
         }
-        //main loop of Floyd-Warshall algorithm
-        int k = 1;
-        while(k <= numVertices){
-            for (int i = 1; i <= numVertices; i ++){
-                for (int j = 1; j <= numVertices; j ++){
-                    solutionMatrix[i][j][1] = Math.min(solutionMatrix[i][j][0],
-                            ((solutionMatrix[i][k][0]) + (solutionMatrix[k][j][0])));
+    }
+
+    /**
+     * A simple path has at most numVertices - 1 edges, so its length is bounded by (numVertices - 1) * maxAbsLength.
+     */
+    private void checkFitsInMatrix(long maxAbsLength){
+        if ((numVertices - 1) * maxAbsLength > BlockedFloydWarshall.MAX_FINITE){
+            throw new ArithmeticException("Error: path lengths of this graph do not fit into the int distance matrix.");
+        }
+    }
+
+    private APSPResult computeResult(){
+        long minPath = Long.MAX_VALUE;
+        for (int i = 0; i < numVertices; i ++){
+            for (int j = 0; j < numVertices; j ++){
+                int distance = distances[i * numVertices + j];
+                if (i != j && distance != UNREACHABLE && distance < minPath){
+                    minPath = distance;
                 }
             }
-            for (int i = 1; i <= numVertices; i ++){
-                for (int j = 1; j <= numVertices; j ++){
-                    solutionMatrix[i][j][0] = solutionMatrix[i][j][1];
+        }
+        return minPath == Long.MAX_VALUE ? APSPResult.noPath() : APSPResult.minDistance(minPath);
+    }
+
+    /**
+     * Insert an edge or decrease the length of an existing one and update the solved matrix in O(numVertices^2)
+     * instead of calling runAPSP() again. Every path that gets shorter uses the new edge a->b, so
+     * d(i, j) = min(d(i, j), d(i, a) + length + d(b, j)). If d(b, a) + length < 0 the edge closes a negative cycle,
+     * then getResult() reports it (with a witness if paths are tracked) and the matrix is dropped.
+     * @param edge new edge, or an existing edge with a length that is not larger than its current length
+     * @throws IllegalArgumentException if the vertices are out of range or the length increases
+     * @throws IllegalStateException if there is no solved matrix in memory
+     * @throws ArithmeticException if the path lengths with the new edge do not fit into the int distance matrix,
+     *         see updateEdges()
+     */
+    public void updateEdge(GraphEdge edge){
+        updateEdges(Collections.singletonList(edge));
+    }
+
+    /**
+     * Apply many edge insertions or decreases, see updateEdge(). Changes of the same edge are merged first.
+     * Each change costs O(numVertices^2), so large batches recompute the whole matrix with runAPSP() instead.
+     * Stops at the first change that closes a negative cycle, the edges are recorded in any case.
+     * If a change could give path lengths outside the int matrix, the batch is finished with runAPSP() instead.
+     * @param changes new edges or decreased edges
+     * @throws IllegalArgumentException if a change has vertices out of range or increases a length, nothing is applied then
+     * @throws IllegalStateException if there is no solved matrix in memory
+     * @throws ArithmeticException if the path lengths with the new edges do not fit into the int distance matrix,
+     *         the edges are recorded and the finder is left unsolved then, as after a failed runAPSP()
+     */
+    public void updateEdges(Collection<GraphEdge> changes){
+        checkSolved();
+        if (distances == null){
+            throw new IllegalStateException("Error: the matrix was loaded from a snapshot and can't be updated.");
+        }
+        HashMap<Long, GraphEdge> merged = new HashMap<>();
+        for (GraphEdge edge : changes){
+            if (edge.getStartID() < 1 || edge.getStartID() > numVertices || edge.getEndID() < 1 || edge.getEndID() > numVertices){
+                throw new IllegalArgumentException("Error: edge " + edge + " has a vertex out of range.");
+            }
+            if (graph.hasEdge(edge.getStartID(), edge.getEndID())
+                    && edge.getLength() > graph.getLength(edge.getStartID(), edge.getEndID())){
+                throw new IllegalArgumentException("Error: edge " + edge + " increases a length, call runAPSP() instead.");
+            }
+            Long key = ((long) edge.getStartID() << 32) | edge.getEndID();
+            GraphEdge other = merged.get(key);
+            if (other == null || edge.getLength() < other.getLength()){
+                merged.put(key, edge);
+            }
+        }
+
+        graph = graph.withEdges(merged.values());
+        if (merged.size() > numVertices / INCREMENTAL_MAX_BATCH_DIVISOR){
+            runAPSP();
+            return;
+        }
+        try {
+            for (GraphEdge edge : merged.values()){
+                if (!relaxThroughEdge(edge.getStartID() - 1, edge.getEndID() - 1, edge.getLength())){
+                    break;
                 }
             }
-            k ++;
+        } catch (ArithmeticException e) {
+            runAPSP(); //the matrix has only part of the batch, recompute it from the graph, which has all of it
         }
     }
 
     /**
-     * Get the shortest path for any possible pairs of vertices
-     * @return shortest path for any possible pairs of vertices
-     *         if the graph contains negative cycles, Floyd-Warshall algorithm can't be applied and return 99999
+     * Relax every pair through the new edge a->b (0-based).
+     * @return false if the edge closes a negative cycle
      */
-    public int getShortestPath(){
-        int minPath = Integer.MAX_VALUE;
-        for (int i = 1; i <= numVertices; i ++){
-            if (solutionMatrix[i][i][1] < 0){
-                return 99999;
+    private boolean relaxThroughEdge(int a, int b, int length){
+        int dab = distances[a * numVertices + b];
+        if (dab != UNREACHABLE && length > dab){
+            return true; //a->b is already shorter, no path can get shorter through the edge
+        }
+        int dba = distances[b * numVertices + a];
+        if (dba != UNREACHABLE && (long) dba + length < 0){
+            result = APSPResult.negativeCycle(negativeCycleThrough(a, b));
+            distances = null;
+            nextHops = null;
+            return false;
+        }
+
+        //column a and row b don't get shorter (that would need a negative cycle), so copies of them stay valid
+        int[] toA = new int[numVertices];
+        int[] fromB = new int[numVertices];
+        long minToA = 0;
+        long minFromB = 0;
+        for (int v = 0; v < numVertices; v ++){
+            toA[v] = distances[v * numVertices + a];
+            fromB[v] = distances[b * numVertices + v];
+            if (toA[v] != UNREACHABLE){
+                minToA = Math.min(minToA, toA[v]);
+            }
+            if (fromB[v] != UNREACHABLE){
+                minFromB = Math.min(minFromB, fromB[v]);
+            }
+        }
+        if (minToA + length + minFromB < -BlockedFloydWarshall.MAX_FINITE){
+            throw new ArithmeticException("Error: path lengths of this graph do not fit into the int distance matrix.");
+        }
+        int[] toAHops = null;
+        int[] toAEdgeCounts = null;
+        int[] fromBEdgeCounts = null;
+        if (nextHops != null){
+            toAHops = new int[numVertices];
+            toAEdgeCounts = new int[numVertices];
+            fromBEdgeCounts = new int[numVertices];
+            for (int v = 0; v < numVertices; v ++){
+                toAHops[v] = v == a ? b : nextHops.get(v * numVertices + a);
+                toAEdgeCounts[v] = nextHops.getEdgeCount(v * numVertices + a);
+                fromBEdgeCounts[v] = nextHops.getEdgeCount(b * numVertices + v);
             }
         }
 
-        for (int i = 1; i <= numVertices; i ++){
-            for (int j = 1; j <= numVertices; j ++){
-                if (solutionMatrix[i][j][1] < minPath){
-                    minPath = solutionMatrix[i][j][1];
+        long minPath = result.hasMinDistance() ? result.getMinDistance() : Long.MAX_VALUE;
+        for (int i = 0; i < numVertices; i ++){
+            if (toA[i] == UNREACHABLE){
+                continue;
+            }
+            long throughEdge = (long) toA[i] + length;
+            int row = i * numVertices;
+            for (int j = 0; j < numVertices; j ++){
+                if (fromB[j] == UNREACHABLE){
+                    continue;
+                }
+                long candidate = throughEdge + fromB[j];
+                int current = distances[row + j];
+                if (candidate > current){
+                    continue;
+                }
+                if (nextHops != null){
+                    //same tie-break as the solvers: among equally long paths keep the one with fewer edges
+                    int edgeCount = toAEdgeCounts[i] + 1 + fromBEdgeCounts[j];
+                    if (candidate == current && edgeCount >= nextHops.getEdgeCount(row + j)){
+                        continue;
+                    }
+                    nextHops.set(row + j, toAHops[i], edgeCount);
+                }
+                else if (candidate == current){
+                    continue;
+                }
+                distances[row + j] = (int) candidate;
+                if (i != j && candidate < minPath){
+                    minPath = candidate;
                 }
             }
         }
-        return minPath;
+        result = minPath == Long.MAX_VALUE ? APSPResult.noPath() : APSPResult.minDistance(minPath);
+        return true;
     }
 
-    public static void main(String[] args) throws FileNotFoundException {
-        //correct answer is -19 which is from g3 (g1 and g2 have negative cycles and can't be computed)
-        APSPFinder tester1 = new APSPFinder("data/g1.txt");
-        tester1.runAPSP();
-        if (tester1.getShortestPath() == 99999){
-            System.out.println("data/g1.txt has negative cycle! Can't compute APSP problem.");
+    /**
+     * Witness of the negative cycle closed by the new edge a->b: the edge followed by the shortest path b->a.
+     * @return 1-based cycle vertices in edge order, or null if paths are not tracked
+     */
+    private int[] negativeCycleThrough(int a, int b){
+        if (nextHops == null){
+            return null;
+        }
+        int length = nextHops.getEdgeCount(b * numVertices + a) + 1;
+        int[] cycle = new int[length];
+        cycle[0] = a + 1;
+        int current = b;
+        for (int k = 1; k < length; k ++){
+            cycle[k] = current + 1;
+            current = nextHops.get(current * numVertices + a);
+        }
+        return cycle;
+    }
+
+    /**
+     * Get the result of runAPSP(): the shortest shortest path, or the negative cycle that prevents it.
+     * @return result of the last runAPSP() call
+     */
+    public APSPResult getResult(){
+        if (result == null){
+            throw new IllegalStateException("Error: runAPSP() has not been called.");
+        }
+        return result;
+    }
+
+    /**
+     * Get the shortest-path distance between two vertices from the finished matrix.
+     * @param from start vertex, numbered from 1
+     * @param to end vertex, numbered from 1
+     * @return length of the shortest path, or UNREACHABLE if there is no path
+     */
+    public int getDistance(int from, int to){
+        checkSolved();
+        if (snapshot != null){
+            return snapshot.getDistance(from - 1, to - 1);
+        }
+        return distances[(from - 1) * numVertices + to - 1];
+    }
+
+    /**
+     * Get one shortest path between two vertices in O(path length). Needs setPathTracking(true) before runAPSP().
+     * @param from start vertex, numbered from 1
+     * @param to end vertex, numbered from 1
+     * @return the path, or null if there is no path
+     */
+    public ShortestPath getPath(int from, int to){
+        checkSolved();
+        if (nextHops == null && (snapshot == null || !snapshot.hasPaths())){
+            throw new IllegalStateException("Error: paths are not tracked, call setPathTracking(true) before runAPSP().");
+        }
+        int distance = getDistance(from, to);
+        if (distance == UNREACHABLE){
+            return null;
         }
-        else{
-            System.out.println("data/g1.txt -> shortest shortest path is " + tester1.getShortestPath());
+        //first walk counts the vertices, second walk stores them
+        int length = 1;
+        for (int current = from - 1; current != to - 1; length ++){
+            current = nextHop(current, to - 1);
+            if (length == numVertices || current == NextHopMatrix.NO_PATH){
+                throw new IllegalStateException("Error: next-hop matrix is inconsistent for " + from + "->" + to + ".");
+            }
+        }
+        int[] vertices = new int[length];
+        vertices[0] = from;
+        for (int i = 1; i < length; i ++){
+            vertices[i] = nextHop(vertices[i - 1] - 1, to - 1) + 1;
         }
+        return new ShortestPath(distance, vertices);
+    }
 
-        APSPFinder tester2 = new APSPFinder("data/g2.txt");
-        tester2.runAPSP();
-        if (tester2.getShortestPath() == 99999){
-            System.out.println("data/g2.txt has negative cycle! Can't compute APSP problem.");
+    private int nextHop(int from, int to){
+        return snapshot != null ? snapshot.getNextHop(from, to) : nextHops.get(from * numVertices + to);
+    }
+
+    private void checkSolved(){
+        APSPResult apspResult = getResult();
+        if (apspResult.hasNegativeCycle()){
+            throw new IllegalStateException("Error: the graph has a negative cycle, shortest paths are not defined.");
         }
-        else{
-            System.out.println("data/g2.txt -> shortest shortest path is " + tester2.getShortestPath());
+    }
+
+    /**
+     * Checksum of the edge list, stored in snapshots to tell whether a snapshot belongs to this graph.
+     * It does not depend on the order of the edges.
+     * @return 64-bit checksum of numVertices and all edges
+     */
+    public long getEdgeChecksum(){
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        int[] weights = graph.weights();
+        long checksum = mix(numVertices);
+        for (int u = 0; u < numVertices; u ++){
+            for (int e = offsets[u]; e < offsets[u + 1]; e ++){
+                long endpoints = ((long) (u + 1) << 32) | (targets[e] + 1);
+                checksum += mix(mix(endpoints) ^ weights[e]);
+            }
         }
+        return checksum;
+    }
+
+    /**
+     * SplitMix64 finalizer, spreads every input bit over the whole output.
+     */
+    private static long mix(long z){
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
 
-        APSPFinder tester3 = new APSPFinder("data/g3.txt");
-        tester3.runAPSP();
-        if (tester3.getShortestPath() == 99999){
-            System.out.println("data/g3.txt has negative cycle! Can't compute APSP problem.");
+    /**
+     * Save the finished distance matrix (and the next-hop matrix if paths are tracked) to a binary snapshot,
+     * see APSPSnapshot for the file format.
+     * @param fileName snapshot file to create or overwrite
+     * @throws IOException if the file can't be written
+     */
+    public void saveSnapshot(String fileName) throws IOException {
+        checkSolved();
+        if (distances == null){
+            throw new IllegalStateException("Error: the matrix was loaded from a snapshot, there is nothing new to save.");
         }
-        else{
-            System.out.println("data/g3.txt -> shortest shortest path is " + tester3.getShortestPath());
+        APSPSnapshot.write(fileName, numVertices, getEdgeChecksum(), result, distances, nextHops);
+    }
+
+    /**
+     * Load a snapshot saved by saveSnapshot() instead of calling runAPSP(). The file is memory-mapped, so loading
+     * takes constant time and getDistance() / getPath() read from the mapped file.
+     * @param fileName snapshot file
+     * @return true if the snapshot was loaded, false if it was saved for a different graph (then nothing changes)
+     * @throws IOException if the file can't be read or is not a valid snapshot
+     */
+    public boolean loadSnapshot(String fileName) throws IOException {
+        APSPSnapshot loaded = APSPSnapshot.load(fileName);
+        if (loaded.getNumVertices() != numVertices || loaded.getEdgeChecksum() != getEdgeChecksum()){
+            return false;
+        }
+        snapshot = loaded;
+        result = loaded.getResult();
+        distances = null;
+        nextHops = null;
+        return true;
+    }
+
+    /**
+     * Get the shortest path for any possible pairs of vertices
+     * @return shortest path for any possible pairs of vertices, including the pairs (i, i) of length 0 as it always did,
+     *         so a graph without negative paths gives 0 (getResult() gives the minimum over pairs of different vertices)
+     *         if the graph contains negative cycles, Floyd-Warshall algorithm can't be applied and return 99999
+     *         if the graph has no vertices, return Integer.MAX_VALUE
+     * @deprecated 99999 is also a valid path length, use getResult() instead
+     */
+    @Deprecated
+    public int getShortestPath(){
+        APSPResult apspResult = getResult();
+        if (apspResult.hasNegativeCycle()){
+            return 99999;
+        }
+        if (numVertices == 0){
+            return Integer.MAX_VALUE;
+        }
+        return apspResult.hasMinDistance() ? (int) Math.min(0, apspResult.getMinDistance()) : 0;
+    }
+
+    public static void main(String[] args) throws FileNotFoundException {
+        //correct answer is -19 which is from g3 (g1 and g2 have negative cycles and can't be computed)
+        for (String fileName : new String[]{"data/g1.txt", "data/g2.txt", "data/g3.txt"}){
+            SolverMetrics metrics = new SolverMetrics(fileName);
+            APSPFinder tester = new APSPFinder(fileName, metrics);
+            tester.runAPSP();
+            APSPResult apspResult = tester.getResult();
+            if (apspResult.hasNegativeCycle()){
+                System.out.println(fileName + " has negative cycle " + Arrays.toString(apspResult.getNegativeCycle())
+                        + "! Can't compute APSP problem.");
+            }
+            else if (!apspResult.hasMinDistance()){
+                System.out.println(fileName + " has no path between two different vertices.");
+            }
+            else{
+                System.out.println(fileName + " -> shortest shortest path is " + apspResult.getMinDistance());
+            }
+            System.out.println("  " + metrics);
         }
     }
 
@@ -0,0 +1,90 @@
+import java.util.Arrays;
+
+/**
+ * Project: Coursera Algorithms by Standford University: Shortest Paths Revisited, NP-Complete Problems and What To Do About Them.
+ * Description: Result of APSPFinder.runAPSP(). Either the graph has a negative cycle, in which case a witness cycle is kept,
+ *              or it has the "shortest shortest path": the minimum of d(u, v) over all pairs u != v such that v is
+ *              reachable from u. A graph in which no vertex reaches another vertex has no such minimum.
+ *
+ * @author : Zitao He
+ * @date : 2026-10-18 15:20
+ **/
+public class APSPResult {
+
+    private final boolean negativeCycle;
+    private final int[] cycle; //vertices of a negative cycle in edge order, null if there is none
+    private final long minDistance;
+    private final boolean hasMinDistance;
+
+    private APSPResult(boolean negativeCycle, int[] cycle, long minDistance, boolean hasMinDistance){
+        this.negativeCycle = negativeCycle;
+        this.cycle = cycle;
+        this.minDistance = minDistance;
+        this.hasMinDistance = hasMinDistance;
+    }
+
+    /**
+     * Create the result of a graph that has a negative cycle.
+     * @param cycle vertices v1, v2, ..., vk of the cycle (edges v1->v2, ..., vk->v1), or null if no witness is known
+     * @return result with the negative cycle flag set
+     */
+    public static APSPResult negativeCycle(int[] cycle){
+        return new APSPResult(true, cycle, 0, false);
+    }
+
+    /**
+     * Create the result of a graph without negative cycles.
+     * @param minDistance shortest shortest path
+     * @return result holding the minimum distance
+     */
+    public static APSPResult minDistance(long minDistance){
+        return new APSPResult(false, null, minDistance, true);
+    }
+
+    /**
+     * Create the result of a graph without negative cycles in which no vertex reaches another vertex.
+     * @return result without minimum distance
+     */
+    public static APSPResult noPath(){
+        return new APSPResult(false, null, 0, false);
+    }
+
+    public boolean hasNegativeCycle(){
+        return negativeCycle;
+    }
+
+    /**
+     * Get the vertices of the negative cycle found in the graph.
+     * @return vertices v1, v2, ..., vk such that v1->v2, ..., vk->v1 is a negative cycle, or null if there is none
+     */
+    public int[] getNegativeCycle(){
+        return cycle == null ? null : cycle.clone();
+    }
+
+    /**
+     * Check if the shortest shortest path exists, i.e. there is no negative cycle and at least one pair is connected.
+     * @return true if getMinDistance() can be called
+     */
+    public boolean hasMinDistance(){
+        return hasMinDistance;
+    }
+
+    /**
+     * Get the shortest shortest path.
+     * @return min d(u, v) over all connected pairs u != v
+     */
+    public long getMinDistance(){
+        if (!hasMinDistance){
+            throw new IllegalStateException("Error: the graph " + (negativeCycle ? "has a negative cycle." : "has no path."));
+        }
+        return minDistance;
+    }
+
+    @Override
+    public String toString() {
+        if (negativeCycle){
+            return "APSPResult{negativeCycle=" + Arrays.toString(cycle) + '}';
+        }
+        return "APSPResult{" + (hasMinDistance ? "minDistance=" + minDistance : "noPath") + '}';
+    }
+}
@@ -0,0 +1,209 @@
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Project: Coursera Algorithms by Standford University: Shortest Paths Revisited, NP-Complete Problems and What To Do About Them.
+ * Description: Binary snapshot of a finished APSPFinder run, so that a process can start from a solved matrix
+ *              instead of recomputing it. The file is little-endian and laid out as
+ *
+ *              header (64 bytes):  magic "APSP", format version, numVertices, flags, bytes per next hop (2 or 4),
+ *                                  checksum of the source edge list, shortest shortest path
+ *              distances:          numVertices^2 ints, row-major, APSPFinder.UNREACHABLE for pairs without path
+ *              next hops:          numVertices^2 shorts or ints, row-major, only if FLAG_PATHS is set
+ *
+ *              load() maps the file read-only and every query reads straight from the mapped region,
+ *              nothing is copied to the heap. A single MappedByteBuffer is limited to 2 GB, so the file is mapped as
+ *              several 1 GB segments. Every section starts at a multiple of its element size and the segment size
+ *              is a multiple of 4, so no element ever crosses a segment boundary.
+ *
+ * @author : Zitao He
+ * @date : 2026-10-18 18:30
+ **/
+public class APSPSnapshot {
+
+    private static final int MAGIC = 0x50535041; //"APSP" when read as little-endian bytes
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int FLAG_PATHS = 1;
+    private static final int FLAG_MIN_DISTANCE = 2;
+    private static final int SEGMENT_SHIFT = 30; //1 GB segments
+    private static final long SEGMENT_BYTES = 1L << SEGMENT_SHIFT;
+    private static final int WRITE_CHUNK_BYTES = 1 << 20;
+
+    private final MappedByteBuffer[] segments;
+    private final int numVertices;
+    private final int hopBytes; //0 if the snapshot has no next hops
+    private final long edgeChecksum;
+    private final APSPResult result;
+    private final long hopsOffset;
+
+    private APSPSnapshot(MappedByteBuffer[] segments, int numVertices, int hopBytes, long edgeChecksum, APSPResult result){
+        this.segments = segments;
+        this.numVertices = numVertices;
+        this.hopBytes = hopBytes;
+        this.edgeChecksum = edgeChecksum;
+        this.result = result;
+        this.hopsOffset = HEADER_BYTES + 4L * numVertices * numVertices;
+    }
+
+    /**
+     * Write a snapshot file.
+     * @param fileName file to create or overwrite
+     * @param numVertices number of vertices
+     * @param edgeChecksum checksum of the edge list the matrix was computed from
+     * @param result result of the run, must not be a negative cycle
+     * @param distances flat row-major distance matrix
+     * @param nextHops next hops, or null if paths were not tracked
+     * @throws IOException if the file can't be written
+     */
+    public static void write(String fileName, int numVertices, long edgeChecksum, APSPResult result,
+                             int[] distances, NextHopMatrix nextHops) throws IOException {
+        if (result.hasNegativeCycle()){
+            throw new IllegalArgumentException("Error: a graph with a negative cycle has no distance matrix to save.");
+        }
+        long pairs = (long) numVertices * numVertices;
+        //NextHopMatrix keeps hops and edge counts with the same element size, only the hops are saved
+        int hopBytes = nextHops == null || pairs == 0 ? 0 : (int) (nextHops.getMemoryBytes() / (2 * pairs));
+        try (RandomAccessFile file = new RandomAccessFile(fileName, "rw"); FileChannel channel = file.getChannel()) {
+            channel.truncate(0);
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_CHUNK_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC);
+            buffer.putInt(VERSION);
+            buffer.putInt(numVertices);
+            buffer.putInt((hopBytes > 0 ? FLAG_PATHS : 0) | (result.hasMinDistance() ? FLAG_MIN_DISTANCE : 0));
+            buffer.putInt(hopBytes);
+            buffer.putInt(0); //reserved
+            buffer.putLong(edgeChecksum);
+            buffer.putLong(result.hasMinDistance() ? result.getMinDistance() : 0);
+            while (buffer.position() < HEADER_BYTES){
+                buffer.put((byte) 0);
+            }
+            for (int index = 0; index < distances.length; ){
+                if (buffer.remaining() < 4){
+                    flush(channel, buffer);
+                }
+                int count = Math.min(buffer.remaining() / 4, distances.length - index);
+                buffer.asIntBuffer().put(distances, index, count);
+                buffer.position(buffer.position() + 4 * count);
+                index += count;
+            }
+            if (hopBytes > 0){
+                for (int index = 0; index < pairs; index ++){
+                    if (buffer.remaining() < 4){
+                        flush(channel, buffer);
+                    }
+                    if (hopBytes == 2){
+                        buffer.putShort((short) nextHops.get(index));
+                    }
+                    else {
+                        buffer.putInt(nextHops.get(index));
+                    }
+                }
+            }
+            flush(channel, buffer);
+            channel.force(false);
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()){
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Map a snapshot file.
+     * @param fileName snapshot written by write()
+     * @return the mapped snapshot
+     * @throws IOException if the file can't be read or is not a valid snapshot
+     */
+    public static APSPSnapshot load(String fileName) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(fileName, "r"); FileChannel channel = file.getChannel()) {
+            long size = channel.size();
+            if (size < HEADER_BYTES){
+                throw new IOException("Error: " + fileName + " is too short to be an APSP snapshot.");
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header, header.position()) >= 0){
+                //read until the header is complete
+            }
+            header.flip();
+            if (header.getInt() != MAGIC){
+                throw new IOException("Error: " + fileName + " is not an APSP snapshot.");
+            }
+            int version = header.getInt();
+            if (version != VERSION){
+                throw new IOException("Error: unsupported APSP snapshot version " + version + " in " + fileName + ".");
+            }
+            int numVertices = header.getInt();
+            int flags = header.getInt();
+            int hopBytes = header.getInt();
+            header.getInt(); //reserved
+            long edgeChecksum = header.getLong();
+            long minDistance = header.getLong();
+            if ((flags & FLAG_PATHS) == 0){
+                hopBytes = 0;
+            }
+            long pairs = (long) numVertices * numVertices;
+            if (numVertices < 0 || (hopBytes != 0 && hopBytes != 2 && hopBytes != 4)
+                    || size != HEADER_BYTES + pairs * 4 + pairs * hopBytes){
+                throw new IOException("Error: " + fileName + " has a corrupt header or was truncated.");
+            }
+
+            MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((size + SEGMENT_BYTES - 1) >>> SEGMENT_SHIFT)];
+            for (int s = 0; s < segments.length; s ++){
+                long start = (long) s << SEGMENT_SHIFT;
+                segments[s] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_BYTES, size - start));
+                segments[s].order(ByteOrder.LITTLE_ENDIAN);
+            }
+            APSPResult result = (flags & FLAG_MIN_DISTANCE) != 0 ? APSPResult.minDistance(minDistance) : APSPResult.noPath();
+            return new APSPSnapshot(segments, numVertices, hopBytes, edgeChecksum, result);
+        }
+    }
+
+    public int getNumVertices(){
+        return numVertices;
+    }
+
+    public long getEdgeChecksum(){
+        return edgeChecksum;
+    }
+
+    public APSPResult getResult(){
+        return result;
+    }
+
+    public boolean hasPaths(){
+        return hopBytes > 0;
+    }
+
+    /**
+     * Read one distance from the mapped file.
+     * @param from 0-based start vertex
+     * @param to 0-based end vertex
+     * @return distance, or APSPFinder.UNREACHABLE
+     */
+    public int getDistance(int from, int to){
+        long offset = HEADER_BYTES + 4 * ((long) from * numVertices + to);
+        return segments[(int) (offset >>> SEGMENT_SHIFT)].getInt((int) (offset & (SEGMENT_BYTES - 1)));
+    }
+
+    /**
+     * Read one next hop from the mapped file. hasPaths() must be true.
+     * @param from 0-based start vertex
+     * @param to 0-based end vertex
+     * @return 0-based next vertex, or NextHopMatrix.NO_PATH
+     */
+    public int getNextHop(int from, int to){
+        long offset = hopsOffset + hopBytes * ((long) from * numVertices + to);
+        MappedByteBuffer segment = segments[(int) (offset >>> SEGMENT_SHIFT)];
+        int position = (int) (offset & (SEGMENT_BYTES - 1));
+        return hopBytes == 2 ? segment.getShort(position) : segment.getInt(position);
+    }
+}
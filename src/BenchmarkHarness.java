@@ -0,0 +1,245 @@
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.regex.Pattern;
+
+/**
+ * Project: Coursera Algorithms by Standford University: Shortest Paths Revisited, NP-Complete Problems and What To Do About Them.
+ * Description: Small benchmark harness in the spirit of JMH, for a project that has no build tool to pull JMH in.
+ *              Every benchmark runs warmup iterations first (to let the JIT compile the hot code), then measurement
+ *              iterations. An iteration calls the operation until at least iterationMillis have passed, so short
+ *              operations are timed over many calls. Per benchmark it reports
+ *
+ *              time:   mean and standard deviation of the per-iteration average, in ms per operation
+ *              alloc:  bytes allocated per operation by the benchmark thread (ThreadMXBean, like JMH's -prof gc)
+ *              gc:     number of collections and total collection time during the measurement (GarbageCollectorMXBeans)
+ *
+ *              Results of the operations are folded into a volatile sink so that the JIT can't drop the work.
+ *              Rows can also be appended to a CSV file to compare runs across versions.
+ *
+ * @author : Zitao He
+ * @date : 2026-10-18 21:10
+ **/
+public class BenchmarkHarness {
+
+    /**
+     * Measured numbers of one benchmark.
+     */
+    public static class Result {
+        private final String name;
+        private final String params;
+        private final double meanMillis;
+        private final double stdDevMillis;
+        private final long operations;
+        private final double allocatedBytesPerOp; //-1 if the JVM can't measure allocation
+        private final long gcCount;
+        private final long gcMillis;
+
+        Result(String name, String params, double meanMillis, double stdDevMillis, long operations,
+               double allocatedBytesPerOp, long gcCount, long gcMillis){
+            this.name = name;
+            this.params = params;
+            this.meanMillis = meanMillis;
+            this.stdDevMillis = stdDevMillis;
+            this.operations = operations;
+            this.allocatedBytesPerOp = allocatedBytesPerOp;
+            this.gcCount = gcCount;
+            this.gcMillis = gcMillis;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getParams() {
+            return params;
+        }
+
+        public double getMeanMillis() {
+            return meanMillis;
+        }
+
+        public double getStdDevMillis() {
+            return stdDevMillis;
+        }
+
+        public double getAllocatedBytesPerOp() {
+            return allocatedBytesPerOp;
+        }
+
+        public long getGcCount() {
+            return gcCount;
+        }
+
+        public long getGcMillis() {
+            return gcMillis;
+        }
+
+        @Override
+        public String toString() {
+            String alloc = allocatedBytesPerOp < 0 ? "n/a" : String.format("%.1f KB/op", allocatedBytesPerOp / 1024);
+            return String.format("%-34s %-22s %12.3f +- %9.3f ms/op  %16s  gc=%d (%d ms)  ops=%d",
+                    name, params, meanMillis, stdDevMillis, alloc, gcCount, gcMillis, operations);
+        }
+    }
+
+    private static volatile int sink;
+
+    private final int warmupIterations;
+    private final int measurementIterations;
+    private final long iterationNanos;
+    private final Pattern filter;
+    private final List<Result> results = new ArrayList<>();
+    private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    private final PrintStream out = System.out; //results still print if a benchmark silences System.out
+
+    /**
+     * Constructor of the harness.
+     * @param warmupIterations number of iterations that are run but not reported
+     * @param measurementIterations number of reported iterations
+     * @param iterationMillis minimum length of an iteration, the operation is repeated until it is reached
+     * @param filter regular expression, only benchmarks whose "name params" contains a match are run
+     */
+    public BenchmarkHarness(int warmupIterations, int measurementIterations, long iterationMillis, String filter){
+        if (warmupIterations < 0 || measurementIterations < 1 || iterationMillis < 0){
+            throw new IllegalArgumentException("Error: need warmup >= 0, measurement >= 1 and iteration time >= 0.");
+        }
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = measurementIterations;
+        this.iterationNanos = iterationMillis * 1_000_000L;
+        this.filter = Pattern.compile(filter == null ? "" : filter);
+    }
+
+    /**
+     * Check if a benchmark passes the filter, to skip expensive setup of benchmarks that won't run.
+     * @param name benchmark name
+     * @param params parameter description
+     * @return true if run() would measure it
+     */
+    public boolean isSelected(String name, String params){
+        return filter.matcher(name + " " + params).find();
+    }
+
+    /**
+     * Measure one operation and print its result.
+     * @param name benchmark name, like "APSPFinder.runAPSP"
+     * @param params parameter description, like "file=g3.txt" or "n=1000"
+     * @param operation the work to time, its return value is consumed so that it can't be optimized away
+     * @return the result, or null if the benchmark was filtered out
+     */
+    public Result run(String name, String params, Callable<?> operation){
+        if (!isSelected(name, params)){
+            return null;
+        }
+        try {
+            for (int i = 0; i < warmupIterations; i ++){
+                iteration(operation);
+            }
+            List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+            long gcCountBefore = gcCount(collectors);
+            long gcMillisBefore = gcMillis(collectors);
+            long allocatedBefore = allocatedBytes();
+
+            double[] millisPerOp = new double[measurementIterations];
+            long operations = 0;
+            for (int i = 0; i < measurementIterations; i ++){
+                long start = System.nanoTime();
+                long count = iteration(operation);
+                millisPerOp[i] = (System.nanoTime() - start) / 1e6 / count;
+                operations += count;
+            }
+
+            long allocatedAfter = allocatedBytes();
+            double allocatedPerOp = allocatedBefore < 0 ? -1 : (double) (allocatedAfter - allocatedBefore) / operations;
+            double mean = 0;
+            for (double millis : millisPerOp){
+                mean += millis;
+            }
+            mean /= millisPerOp.length;
+            double variance = 0;
+            for (double millis : millisPerOp){
+                variance += (millis - mean) * (millis - mean);
+            }
+            double stdDev = millisPerOp.length > 1 ? Math.sqrt(variance / (millisPerOp.length - 1)) : 0;
+            Result result = new Result(name, params, mean, stdDev, operations, allocatedPerOp,
+                    gcCount(collectors) - gcCountBefore, gcMillis(collectors) - gcMillisBefore);
+            results.add(result);
+            out.println(result);
+            return result;
+        } catch (Exception e) {
+            throw new IllegalStateException("Error: benchmark " + name + " " + params + " failed.", e);
+        }
+    }
+
+    private long iteration(Callable<?> operation) throws Exception {
+        long start = System.nanoTime();
+        long count = 0;
+        do {
+            Object value = operation.call();
+            sink += value == null ? 0 : value.hashCode();
+            count ++;
+        } while (System.nanoTime() - start < iterationNanos);
+        return count;
+    }
+
+    private long allocatedBytes(){
+        if (threadBean instanceof com.sun.management.ThreadMXBean){
+            com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+            if (allocationBean.isThreadAllocatedMemorySupported() && allocationBean.isThreadAllocatedMemoryEnabled()){
+                return allocationBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    private static long gcCount(List<GarbageCollectorMXBean> collectors){
+        long count = 0;
+        for (GarbageCollectorMXBean collector : collectors){
+            count += Math.max(0, collector.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long gcMillis(List<GarbageCollectorMXBean> collectors){
+        long millis = 0;
+        for (GarbageCollectorMXBean collector : collectors){
+            millis += Math.max(0, collector.getCollectionTime());
+        }
+        return millis;
+    }
+
+    /**
+     * Get all results measured so far.
+     * @return results in the order they were measured
+     */
+    public List<Result> getResults(){
+        return new ArrayList<>(results);
+    }
+
+    /**
+     * Append all results to a CSV file, writing the header line if the file is new.
+     * @param fileName CSV file
+     * @param label label of this run, like a version or commit, written into every row
+     * @throws IOException if the file can't be written
+     */
+    public void appendCsv(String fileName, String label) throws IOException {
+        boolean exists = new File(fileName).exists();
+        try (PrintWriter writer = new PrintWriter(new FileWriter(fileName, true))) {
+            if (!exists){
+                writer.println("label,benchmark,params,ms_per_op,ms_stddev,alloc_bytes_per_op,gc_count,gc_ms");
+            }
+            for (Result result : results){
+                writer.printf("%s,%s,%s,%.6f,%.6f,%.0f,%d,%d%n", label, result.name, result.params, result.meanMillis,
+                        result.stdDevMillis, result.allocatedBytesPerOp, result.gcCount, result.gcMillis);
+            }
+        }
+    }
+}
@@ -0,0 +1,389 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Project: Coursera Algorithms by Standford University: Shortest Paths Revisited, NP-Complete Problems and What To Do About Them.
+ * Description: Cache-blocked Floyd-Warshall engine used by APSPFinder.
+ *              Distances live in one flat row-major int array (vertex v maps to index v - 1) and are updated in place,
+ *              so there is no per-cell object and no copy-back of the whole matrix between k rounds.
+ *              The matrix is cut into BLOCK_SIZE x BLOCK_SIZE tiles and every block of pivots kb is processed in
+ *              three phases:
+ *
+ *              1. the diagonal tile (kb, kb) runs plain Floyd-Warshall on its own pivots,
+ *              2. the tiles in row kb and column kb are relaxed through the finished diagonal tile,
+ *              3. every remaining tile (i, j) is relaxed through the finished tiles (i, kb) and (kb, j).
+ *
+ *              Each step only touches a handful of tiles, which keeps the working set in L2 cache even when
+ *              the whole matrix does not fit.
+ *
+ *              Edge lengths must be non-negative (APSPFinder reweights them with Johnson potentials first) and
+ *              missing edges are INFINITY. A relaxation through an unreachable pivot (d[i][k] == INFINITY) is skipped.
+ *              Every other candidate d[i][k] + d[k][j] is at most MAX_FINITE + INFINITY, which still fits in an int,
+ *              and it is at least INFINITY whenever d[k][j] is, so infinity never turns into a finite length.
+ *
+ *              With parallelism above 1 the tiles of phase 2 and phase 3 are spread over a ForkJoinPool.
+ *              Tiles of one phase write disjoint cells and only read cells finished in an earlier phase,
+ *              and every cell sees exactly the same sequence of relaxations as in the sequential run,
+ *              so the result is bit-identical for any parallelism level.
+ *
+ *              The row operation d[i][j] = min(d[i][j], d[i][k] + d[k][j]) is a MinPlusKernel, by default the
+ *              branch-free ScalarMinPlusKernel, see setKernel().
+ *
+ *              If a NextHopMatrix is given, it is updated by a branch-free kernel of its own: whenever the path through
+ *              pivot k is strictly shorter than d[i][j], or equally long with fewer edges, next[i][j] becomes next[i][k].
+ *
+ * @author : Zitao He
+ * @date : 2026-10-18 10:12
+ **/
+public class BlockedFloydWarshall {
+
+    public static final int BLOCK_SIZE = 256;
+    public static final int INFINITY = 1 << 30; //length of a missing edge or path
+    public static final int MAX_FINITE = INFINITY - 1; //largest length that is not infinite
+    private static final int STRIP_ROWS = 32; //rows of one tile handled by a single fork-join task
+
+    private final int numVertices;
+    private final int[] distances;
+    private final int parallelism;
+    private final NextHopMatrix nextHops; //null if paths are not tracked
+    private MinPlusKernel kernel = new ScalarMinPlusKernel();
+    private SolverMetrics metrics; //null if nothing is counted
+
+    /**
+     * Constructor of the sequential blocked Floyd-Warshall engine.
+     * @param numVertices number of vertices in graph
+     * @param distances flat row-major numVertices x numVertices matrix holding the initial edge lengths
+     *                  (0 to MAX_FINITE, or INFINITY). The array is updated in place by run().
+     */
+    public BlockedFloydWarshall(int numVertices, int[] distances){
+        this(numVertices, distances, 1);
+    }
+
+    /**
+     * Constructor of the blocked Floyd-Warshall engine.
+     * @param numVertices number of vertices in graph
+     * @param distances flat row-major numVertices x numVertices matrix holding the initial edge lengths
+     *                  (0 to MAX_FINITE, or INFINITY). The array is updated in place by run().
+     *                  The caller must make sure that no shortest path is longer than MAX_FINITE.
+     * @param parallelism number of worker threads, 1 runs everything on the calling thread
+     */
+    public BlockedFloydWarshall(int numVertices, int[] distances, int parallelism){
+        this(numVertices, distances, parallelism, null);
+    }
+
+    /**
+     * Constructor of the blocked Floyd-Warshall engine that also tracks shortest paths.
+     * @param numVertices number of vertices in graph
+     * @param distances flat row-major numVertices x numVertices matrix holding the initial edge lengths
+     *                  (0 to MAX_FINITE, or INFINITY). The array is updated in place by run().
+     *                  The caller must make sure that no shortest path is longer than MAX_FINITE.
+     * @param parallelism number of worker threads, 1 runs everything on the calling thread
+     * @param nextHops next hops matching the initial edges (j for an edge i->j, i on the diagonal),
+     *                 updated in place by run(). Null to skip path tracking.
+     */
+    public BlockedFloydWarshall(int numVertices, int[] distances, int parallelism, NextHopMatrix nextHops){
+        if (distances.length != numVertices * numVertices){
+            throw new IllegalArgumentException("Error: distance matrix must have numVertices * numVertices entries.");
+        }
+        if (parallelism < 1){
+            throw new IllegalArgumentException("Error: parallelism must be at least 1.");
+        }
+        for (int length : distances){
+            if (length < 0 || length > INFINITY){
+                throw new IllegalArgumentException("Error: edge lengths must be between 0 and INFINITY, found " + length + ".");
+            }
+        }
+        this.numVertices = numVertices;
+        this.distances = distances;
+        this.parallelism = parallelism;
+        this.nextHops = nextHops;
+    }
+
+    /**
+     * Set the kernel of the min-plus row operation that runs without path tracking. The result does not depend on it,
+     * path tracking always uses the scalar kernel below.
+     * @param kernel kernel to use, ScalarMinPlusKernel by default (see MinPlusKernel.load())
+     */
+    public void setKernel(MinPlusKernel kernel){
+        if (kernel == null){
+            throw new IllegalArgumentException("Error: kernel must not be null.");
+        }
+        this.kernel = kernel;
+    }
+
+    /**
+     * Count the finished phases and relaxations in metrics, after every phase.
+     * @param metrics metrics to count in, null (the default) to count nothing
+     */
+    public void setMetrics(SolverMetrics metrics){
+        this.metrics = metrics;
+    }
+
+    /**
+     * Run the blocked Floyd-Warshall algorithm.
+     */
+    public void run(){
+        if (parallelism == 1){
+            runSequential();
+            return;
+        }
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            runParallel(pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private void runSequential(){
+        int n = numVertices;
+        TileScratch scratch = new TileScratch();
+        for (int kb = 0; kb < n; kb += BLOCK_SIZE){
+            int kEnd = Math.min(kb + BLOCK_SIZE, n);
+
+            //phase 1: the diagonal tile depends only on itself
+            relaxDiagonalTile(kb, kEnd, scratch);
+            phaseFinished(1, kEnd - kb);
+
+            //phase 2: tiles in pivot row and pivot column depend on the diagonal tile
+            for (int b = 0; b < n; b += BLOCK_SIZE){
+                if (b == kb){
+                    continue;
+                }
+                int bEnd = Math.min(b + BLOCK_SIZE, n);
+                relaxTile(kb, kEnd, b, bEnd, kb, kEnd, scratch);
+                relaxTile(b, bEnd, kb, kEnd, kb, kEnd, scratch);
+            }
+            phaseFinished(2, kEnd - kb);
+
+            //phase 3: every other tile depends only on its pivot row tile and pivot column tile
+            for (int ib = 0; ib < n; ib += BLOCK_SIZE){
+                if (ib == kb){
+                    continue;
+                }
+                int iEnd = Math.min(ib + BLOCK_SIZE, n);
+                for (int jb = 0; jb < n; jb += BLOCK_SIZE){
+                    if (jb == kb){
+                        continue;
+                    }
+                    relaxTile(ib, iEnd, jb, Math.min(jb + BLOCK_SIZE, n), kb, kEnd, scratch);
+                }
+            }
+            phaseFinished(3, kEnd - kb);
+        }
+    }
+
+    private void runParallel(ForkJoinPool pool){
+        int n = numVertices;
+        ThreadLocal<TileScratch> scratches = ThreadLocal.withInitial(TileScratch::new);
+        for (int kb = 0; kb < n; kb += BLOCK_SIZE){
+            final int pivotStart = kb;
+            final int pivotEnd = Math.min(kb + BLOCK_SIZE, n);
+
+            //phase 1 is a single tile, keep it on this thread
+            relaxDiagonalTile(pivotStart, pivotEnd, scratches.get());
+            phaseFinished(1, pivotEnd - pivotStart);
+
+            //phase 2: a pivot row tile reads its own rows as pivot rows, so it must stay one task.
+            //A pivot column tile only reads the diagonal tile and can be cut into strips.
+            List<ForkJoinTask<?>> tasks = new ArrayList<>();
+            for (int b = 0; b < n; b += BLOCK_SIZE){
+                if (b == pivotStart){
+                    continue;
+                }
+                final int bStart = b;
+                final int bEnd = Math.min(b + BLOCK_SIZE, n);
+                tasks.add(ForkJoinTask.adapt(() ->
+                        relaxTile(pivotStart, pivotEnd, bStart, bEnd, pivotStart, pivotEnd, scratches.get())));
+                addStripTasks(tasks, bStart, bEnd, pivotStart, pivotEnd, pivotStart, pivotEnd, scratches);
+            }
+            invokeAll(pool, tasks);
+            phaseFinished(2, pivotEnd - pivotStart);
+
+            //phase 3: every remaining tile, cut into strips
+            tasks.clear();
+            for (int ib = 0; ib < n; ib += BLOCK_SIZE){
+                if (ib == pivotStart){
+                    continue;
+                }
+                int iEnd = Math.min(ib + BLOCK_SIZE, n);
+                for (int jb = 0; jb < n; jb += BLOCK_SIZE){
+                    if (jb == pivotStart){
+                        continue;
+                    }
+                    addStripTasks(tasks, ib, iEnd, jb, Math.min(jb + BLOCK_SIZE, n), pivotStart, pivotEnd, scratches);
+                }
+            }
+            invokeAll(pool, tasks);
+            phaseFinished(3, pivotEnd - pivotStart);
+        }
+    }
+
+    /**
+     * Count a finished phase of a pivot block of the given size. Phase 1 relaxes size^2 cells, phase 2 the
+     * 2 * (n - size) * size cells of the pivot row and column, phase 3 the (n - size)^2 others, each through size pivots.
+     */
+    private void phaseFinished(int phase, int size){
+        if (metrics == null){
+            return;
+        }
+        long rest = numVertices - size;
+        long cells = phase == 1 ? (long) size * size : phase == 2 ? 2 * rest * size : rest * rest;
+        metrics.add(SolverMetrics.Counter.FW_PHASES, 1);
+        metrics.add(SolverMetrics.Counter.FW_RELAXATIONS, cells * size);
+        metrics.progress();
+    }
+
+    private void addStripTasks(List<ForkJoinTask<?>> tasks, int iStart, int iEnd, int jStart, int jEnd,
+                               int kStart, int kEnd, ThreadLocal<TileScratch> scratches){
+        for (int strip = iStart; strip < iEnd; strip += STRIP_ROWS){
+            final int stripStart = strip;
+            final int stripEnd = Math.min(strip + STRIP_ROWS, iEnd);
+            tasks.add(ForkJoinTask.adapt(() ->
+                    relaxTile(stripStart, stripEnd, jStart, jEnd, kStart, kEnd, scratches.get())));
+        }
+    }
+
+    private static void invokeAll(ForkJoinPool pool, List<ForkJoinTask<?>> tasks){
+        pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+    }
+
+    /**
+     * Plain Floyd-Warshall restricted to the diagonal tile. Pivots must be the outer loop here
+     * because the tile is both the source and the target of every relaxation.
+     */
+    private void relaxDiagonalTile(int start, int end, TileScratch scratch){
+        int n = numVertices;
+        int size = end - start;
+        int[][] tile = scratch.pivotRows;
+        int[][] hopTile = nextHops == null ? null : scratch.nextHopTile();
+        int[][] edgeCountTile = nextHops == null ? null : scratch.pivotEdgeCountRows();
+        for (int i = 0; i < size; i ++){
+            System.arraycopy(distances, (start + i) * n + start, tile[i], 0, size);
+            if (nextHops != null){
+                nextHops.copyOut((start + i) * n + start, hopTile[i], edgeCountTile[i], size);
+            }
+        }
+        for (int k = 0; k < size; k ++){
+            int[] rowK = tile[k];
+            for (int i = 0; i < size; i ++){
+                int[] rowI = tile[i];
+                if (rowI[k] == INFINITY){
+                    continue;
+                }
+                if (nextHops == null){
+                    kernel.relaxRow(rowI, rowK, rowI[k], size);
+                }
+                else {
+                    relaxRow(rowI, hopTile[i], edgeCountTile[i], rowK, edgeCountTile[k],
+                            rowI[k], hopTile[i][k], edgeCountTile[i][k], size);
+                }
+            }
+        }
+        for (int i = 0; i < size; i ++){
+            System.arraycopy(tile[i], 0, distances, (start + i) * n + start, size);
+            if (nextHops != null){
+                nextHops.copyIn(hopTile[i], edgeCountTile[i], (start + i) * n + start, size);
+            }
+        }
+    }
+
+    /**
+     * Relax every cell (i, j) of one tile through the pivots k of the pivot block, using the pivot rows
+     * as they were before this tile was touched. That is valid for the phase 2 and phase 3 tiles: the tiles they
+     * combine with are already closed under the pivot block, so one pass over k in any order is enough.
+     */
+    private void relaxTile(int iStart, int iEnd, int jStart, int jEnd, int kStart, int kEnd, TileScratch scratch){
+        int n = numVertices;
+        int[] d = distances;
+        int[][] pivotRows = scratch.pivotRows;
+        int[][] pivotEdgeCounts = nextHops == null ? null : scratch.pivotEdgeCountRows();
+        int width = jEnd - jStart;
+        for (int k = kStart; k < kEnd; k ++){
+            System.arraycopy(d, k * n + jStart, pivotRows[k - kStart], 0, width);
+            if (nextHops != null){
+                nextHops.copyEdgeCountsOut(k * n + jStart, pivotEdgeCounts[k - kStart], width);
+            }
+        }
+        int[] row = scratch.currentRow;
+        int[] hopRow = scratch.currentHopRow;
+        int[] edgeCountRow = scratch.currentEdgeCountRow;
+        for (int i = iStart; i < iEnd; i ++){
+            int rowI = i * n;
+            System.arraycopy(d, rowI + jStart, row, 0, width);
+            if (nextHops == null){
+                for (int k = kStart; k < kEnd; k ++){
+                    int dik = d[rowI + k];
+                    if (dik != INFINITY){ //nothing goes through a pivot that i cannot reach
+                        kernel.relaxRow(row, pivotRows[k - kStart], dik, width);
+                    }
+                }
+            }
+            else {
+                nextHops.copyOut(rowI + jStart, hopRow, edgeCountRow, width);
+                for (int k = kStart; k < kEnd; k ++){
+                    int dik = d[rowI + k];
+                    if (dik != INFINITY){
+                        relaxRow(row, hopRow, edgeCountRow, pivotRows[k - kStart], pivotEdgeCounts[k - kStart],
+                                dik, nextHops.get(rowI + k), nextHops.getEdgeCount(rowI + k), width);
+                    }
+                }
+                nextHops.copyIn(hopRow, edgeCountRow, rowI + jStart, width);
+            }
+            System.arraycopy(row, 0, d, rowI + jStart, width);
+        }
+    }
+
+    /**
+     * Min-plus row operation that also tracks paths. A path through the pivot wins if it is strictly shorter,
+     * or equally long with fewer edges. The winner takes the next hop nik from i towards the pivot
+     * and the edge count eik + pivotEdgeCounts[j].
+     */
+    private static void relaxRow(int[] row, int[] hopRow, int[] edgeCountRow, int[] pivotRow, int[] pivotEdgeCounts,
+                                 int dik, int nik, int eik, int width){
+        for (int j = 0; j < width; j ++){
+            int current = row[j];
+            int diff = dik + pivotRow[j] - current;
+            int edgeDiff = eik + pivotEdgeCounts[j] - edgeCountRow[j];
+            int tie = ~((diff | -diff) >> 31); //all ones if diff == 0
+            int improved = (diff | (tie & edgeDiff)) >> 31; //all ones if the path through the pivot wins
+            row[j] = current + (diff & improved);
+            edgeCountRow[j] += edgeDiff & improved;
+            hopRow[j] ^= (hopRow[j] ^ nik) & improved;
+        }
+    }
+
+    public int[] getDistances(){
+        return distances;
+    }
+
+    /**
+     * Per-thread scratch rows. The inner loop always reads and writes separate int[] rows starting at index 0,
+     * which is the shape C2 needs to vectorize it.
+     */
+    private static class TileScratch {
+        private final int[][] pivotRows = new int[BLOCK_SIZE][BLOCK_SIZE];
+        private final int[] currentRow = new int[BLOCK_SIZE];
+        private final int[] currentHopRow = new int[BLOCK_SIZE];
+        private final int[] currentEdgeCountRow = new int[BLOCK_SIZE];
+        //only allocated when paths are tracked
+        private int[][] nextHopTile;
+        private int[][] pivotEdgeCountRows;
+
+        private int[][] nextHopTile(){
+            if (nextHopTile == null){
+                nextHopTile = new int[BLOCK_SIZE][BLOCK_SIZE];
+            }
+            return nextHopTile;
+        }
+
+        private int[][] pivotEdgeCountRows(){
+            if (pivotEdgeCountRows == null){
+                pivotEdgeCountRows = new int[BLOCK_SIZE][BLOCK_SIZE];
+            }
+            return pivotEdgeCountRows;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Project: Coursera Algorithms by Standford University: Shortest Paths Revisited, NP-Complete Problems and What To Do About Them.
+ * Description: Immutable directed graph in compressed sparse row (CSR) form, the edge store of APSPFinder and its backends.
+ *              The out-edges of vertex u are targets[offsets[u] .. offsets[u+1]) with lengths in weights at the same positions,
+ *              so the whole graph takes 4 * (numVertices + 1 + 2 * numEdges) bytes and scanning a vertex reads two
+ *              contiguous int ranges. Parallel edges are collapsed into one edge with the minimum length,
+ *              the only one that can be on a shortest path. Edges of a vertex keep the order of their first occurrence.
+ *              The public methods number vertices from 1 like the input files, the arrays are 0-based.
+ *
+ * @author : Zitao He
+ * @date : 2026-10-18 20:30
+ **/
+public class CSRGraph {
+
+    private final int numVertices;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] weights;
+
+    /**
+     * Build the graph from edge triples: edge e goes from starts[e] to ends[e] with length lengths[e].
+     * The arrays are not kept.
+     * @param numVertices number of vertices, vertices are numbered from 1 to numVertices
+     * @param starts start vertex of every edge
+     * @param ends end vertex of every edge
+     * @param lengths length of every edge
+     * @param numEdges number of edges, only the first numEdges entries of the arrays are read
+     * @throws IllegalArgumentException if an edge has a vertex out of range
+     */
+    public CSRGraph(int numVertices, int[] starts, int[] ends, int[] lengths, int numEdges){
+        if (numVertices < 0){
+            throw new IllegalArgumentException("Error: number of vertices can't be negative: " + numVertices);
+        }
+        this.numVertices = numVertices;
+        int[] counts = new int[numVertices + 1];
+        for (int e = 0; e < numEdges; e ++){
+            if (starts[e] < 1 || starts[e] > numVertices || ends[e] < 1 || ends[e] > numVertices){
+                throw new IllegalArgumentException("Error: edge " + starts[e] + "->" + ends[e]
+                        + " has a vertex out of range 1.." + numVertices + ".");
+            }
+            counts[starts[e]] ++; //count out-degree of vertex (start - 1) one slot to the right
+        }
+        for (int v = 0; v < numVertices; v ++){
+            counts[v + 1] += counts[v];
+        }
+        int[] bucketTargets = new int[numEdges];
+        int[] bucketWeights = new int[numEdges];
+        int[] next = Arrays.copyOf(counts, numVertices);
+        for (int e = 0; e < numEdges; e ++){
+            int slot = next[starts[e] - 1] ++;
+            bucketTargets[slot] = ends[e] - 1;
+            bucketWeights[slot] = lengths[e];
+        }
+
+        //collapse parallel edges in place, slotOfTarget[v] is valid while lastSource[v] == u
+        offsets = new int[numVertices + 1];
+        int[] lastSource = new int[numVertices];
+        int[] slotOfTarget = new int[numVertices];
+        Arrays.fill(lastSource, -1);
+        int size = 0;
+        for (int u = 0; u < numVertices; u ++){
+            offsets[u] = size;
+            for (int e = counts[u]; e < counts[u + 1]; e ++){
+                int v = bucketTargets[e];
+                if (lastSource[v] == u){
+                    int slot = slotOfTarget[v];
+                    bucketWeights[slot] = Math.min(bucketWeights[slot], bucketWeights[e]);
+                }
+                else {
+                    lastSource[v] = u;
+                    slotOfTarget[v] = size;
+                    bucketTargets[size] = v;
+                    bucketWeights[size] = bucketWeights[e];
+                    size ++;
+                }
+            }
+        }
+        offsets[numVertices] = size;
+        targets = size == numEdges ? bucketTargets : Arrays.copyOf(bucketTargets, size);
+        weights = size == numEdges ? bucketWeights : Arrays.copyOf(bucketWeights, size);
+    }
+
+    /**
+     * Build the graph from an edge list.
+     * @param numVertices number of vertices, vertices are numbered from 1 to numVertices
+     * @param edges edges of the graph
+     * @return the graph
+     * @throws IllegalArgumentException if an edge has a vertex out of range
+     */
+    public static CSRGraph fromEdges(int numVertices, Collection<GraphEdge> edges){
+        int[] starts = new int[edges.size()];
+        int[] ends = new int[edges.size()];
+        int[] lengths = new int[edges.size()];
+        int e = 0;
+        for (GraphEdge edge : edges){
+            starts[e] = edge.getStartID();
+            ends[e] = edge.getEndID();
+            lengths[e] = edge.getLength();
+            e ++;
+        }
+        return new CSRGraph(numVertices, starts, ends, lengths, e);
+    }
+
+    /**
+     * Build a copy of this graph with more edges, in O(numVertices + numEdges). An added edge parallel to an existing one
+     * is collapsed with it as usual, so it only changes the graph if it is shorter.
+     * @param added edges to add
+     * @return the new graph
+     * @throws IllegalArgumentException if an edge has a vertex out of range
+     */
+    public CSRGraph withEdges(Collection<GraphEdge> added){
+        int size = targets.length + added.size();
+        int[] starts = new int[size];
+        int[] ends = new int[size];
+        int[] lengths = new int[size];
+        int e = 0;
+        for (int u = 0; u < numVertices; u ++){
+            for (int slot = offsets[u]; slot < offsets[u + 1]; slot ++){
+                starts[e] = u + 1;
+                ends[e] = targets[slot] + 1;
+                lengths[e] = weights[slot];
+                e ++;
+            }
+        }
+        for (GraphEdge edge : added){
+            starts[e] = edge.getStartID();
+            ends[e] = edge.getEndID();
+            lengths[e] = edge.getLength();
+            e ++;
+        }
+        return new CSRGraph(numVertices, starts, ends, lengths, e);
+    }
+
+    public int getNumVertices(){
+        return numVertices;
+    }
+
+    /**
+     * Get the number of edges after parallel edges were collapsed.
+     * @return number of edges
+     */
+    public int getNumEdges(){
+        return targets.length;
+    }
+
+    /**
+     * Check if the graph has an edge, in O(out-degree of from).
+     * @param from start vertex, numbered from 1
+     * @param to end vertex, numbered from 1
+     * @return true if the edge from->to exists
+     */
+    public boolean hasEdge(int from, int to){
+        return findSlot(from - 1, to - 1) >= 0;
+    }
+
+    /**
+     * Get the length of an edge, in O(out-degree of from).
+     * @param from start vertex, numbered from 1
+     * @param to end vertex, numbered from 1
+     * @return length of the edge from->to
+     * @throws IllegalArgumentException if the edge doesn't exist
+     */
+    public int getLength(int from, int to){
+        int slot = findSlot(from - 1, to - 1);
+        if (slot < 0){
+            throw new IllegalArgumentException("Error: the graph has no edge " + from + "->" + to + ".");
+        }
+        return weights[slot];
+    }
+
+    private int findSlot(int u, int v){
+        if (u < 0 || u >= numVertices){
+            return -1;
+        }
+        for (int slot = offsets[u]; slot < offsets[u + 1]; slot ++){
+            if (targets[slot] == v){
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Get the largest absolute edge length, 0 for a graph without edges.
+     * @return max |length| over all edges
+     */
+    public long getMaxAbsLength(){
+        long max = 0;
+        for (int weight : weights){
+            max = Math.max(max, Math.abs((long) weight));
+        }
+        return max;
+    }
+
+    /**
+     * Get the heap size of the three arrays.
+     * @return 4 * (numVertices + 1 + 2 * numEdges) bytes
+     */
+    public long getMemoryBytes(){
+        return 4L * (offsets.length + targets.length + weights.length);
+    }
+
+    //The arrays are shared, not copied, so that the backends can scan them directly. They must not be modified.
+
+    int[] offsets(){
+        return offsets;
+    }
+
+    int[] targets(){
+        return targets;
+    }
+
+    int[] weights(){
+        return weights;
+    }
+}
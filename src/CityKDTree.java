@@ -0,0 +1,359 @@
+import java.util.Arrays;
+
+/**
+ * Project: Coursera Algorithms by Standford University: Shortest Paths Revisited, NP-Complete Problems and What To Do About Them.
+ * Description: 2-d tree over the cities of a TSP instance with deletion, used by HeuristicTSPMinCostFinder to find
+ *              the nearest unvisited city without relying on the order of the input.
+ *
+ *              The tree is implicit in a permutation of the cities: the node of range [lo, hi) is the city at
+ *              mid = (lo + hi) / 2, its subtrees are [lo, mid) and [mid + 1, hi). Building it selects the median of every
+ *              range on the coordinate with the larger spread (so clustered inputs split well), in O(n log n).
+ *              Per node, indexed by mid, it keeps the split dimension and the number of live cities of the subtree.
+ *              Removing a city walks from the root to its node and decrements those counts, and searches skip
+ *              subtrees without live cities, so queries stay fast when most cities are visited.
+ *
+ *              nearest() returns the live city with the smallest squared distance, ties broken by the lowest index.
+ *              The far side of a split is searched while its plane is not farther than the best distance, so cities
+ *              at equal distance are never pruned. Cities are numbered from 0 here.
+ *
+ * @author : Zitao He
+ * @date : 2026-10-18 23:50
+ **/
+public class CityKDTree {
+
+    private final double[] xs;
+    private final double[] ys;
+    private final int numCities;
+    private final int[] order; //the implicit tree, order[mid] is the city of the node of range [lo, hi)
+    private final int[] positions; //positions[city] is the index of city in order
+    private final boolean[] splitOnY; //split dimension of the node at mid
+    private final int[] initialLive;
+    private final int[] live; //live cities in the subtree of the node at mid
+    //coordinates and removed flags in tree order, so that a search reads contiguous memory instead of following order[]
+    private final double[] nodeXs;
+    private final double[] nodeYs;
+    private final boolean[] nodeRemoved;
+    private int numLive;
+    private long numExamined; //nodes with live cities visited by all queries
+
+    //state of the running query
+    private double queryX, queryY;
+    private int bestCity;
+    private double bestSquaredDist;
+    private int[] foundCities; //k nearest found so far, sorted by distance then index
+    private double[] foundSquaredDists;
+    private int numFound;
+
+    /**
+     * Build the tree. The coordinate arrays are shared, not copied, and must not be modified.
+     * @param xs x coordinate of every city
+     * @param ys y coordinate of every city
+     */
+    public CityKDTree(double[] xs, double[] ys){
+        if (xs.length != ys.length){
+            throw new IllegalArgumentException("Error: " + xs.length + " x coordinates but " + ys.length + " y coordinates.");
+        }
+        this.xs = xs;
+        this.ys = ys;
+        numCities = xs.length;
+        order = new int[numCities];
+        for (int i = 0; i < numCities; i ++){
+            order[i] = i;
+        }
+        splitOnY = new boolean[numCities];
+        initialLive = new int[numCities];
+        build(0, numCities);
+        positions = new int[numCities];
+        nodeXs = new double[numCities];
+        nodeYs = new double[numCities];
+        for (int i = 0; i < numCities; i ++){
+            positions[order[i]] = i;
+            nodeXs[i] = xs[order[i]];
+            nodeYs[i] = ys[order[i]];
+        }
+        live = new int[numCities];
+        nodeRemoved = new boolean[numCities];
+        reset();
+    }
+
+    /**
+     * Tree over the same cities with its own live cities, all live. Only the live counts and removed flags are
+     * allocated, the structure and the coordinates are shared, so copies for worker threads are cheap.
+     */
+    private CityKDTree(CityKDTree tree){
+        xs = tree.xs;
+        ys = tree.ys;
+        numCities = tree.numCities;
+        order = tree.order;
+        positions = tree.positions;
+        splitOnY = tree.splitOnY;
+        initialLive = tree.initialLive;
+        nodeXs = tree.nodeXs;
+        nodeYs = tree.nodeYs;
+        live = new int[numCities];
+        nodeRemoved = new boolean[numCities];
+        reset();
+    }
+
+    /**
+     * Get a copy with its own live cities, for another thread. Removing cities from either tree doesn't affect the other.
+     * @return a tree over the same cities, all of them live
+     */
+    public CityKDTree copy(){
+        return new CityKDTree(this);
+    }
+
+    private void build(int lo, int hi){
+        while (hi - lo > 0){
+            int mid = (lo + hi) >>> 1;
+            initialLive[mid] = hi - lo;
+            double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+            double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+            for (int i = lo; i < hi; i ++){
+                int city = order[i];
+                minX = Math.min(minX, xs[city]);
+                maxX = Math.max(maxX, xs[city]);
+                minY = Math.min(minY, ys[city]);
+                maxY = Math.max(maxY, ys[city]);
+            }
+            boolean onY = maxY - minY > maxX - minX;
+            splitOnY[mid] = onY;
+            select(lo, hi, mid, onY ? ys : xs);
+            //recurse into the smaller side, loop on the larger one, so the stack depth stays O(log n)
+            if (mid - lo < hi - mid - 1){
+                build(lo, mid);
+                lo = mid + 1;
+            }
+            else {
+                build(mid + 1, hi);
+                hi = mid;
+            }
+        }
+    }
+
+    /**
+     * Quickselect with a three-way partition: afterwards order[lo .. k) <= order[k] <= order(k .. hi) on coordinate.
+     */
+    private void select(int lo, int hi, int k, double[] coordinate){
+        while (hi - lo > 1){
+            double a = coordinate[order[lo]];
+            double b = coordinate[order[(lo + hi) >>> 1]];
+            double c = coordinate[order[hi - 1]];
+            double pivot = Math.max(Math.min(a, b), Math.min(Math.max(a, b), c)); //median of three
+            int lt = lo, i = lo, gt = hi;
+            while (i < gt){
+                double value = coordinate[order[i]];
+                if (value < pivot){
+                    swap(lt ++, i ++);
+                }
+                else if (value > pivot){
+                    swap(i, -- gt);
+                }
+                else {
+                    i ++;
+                }
+            }
+            if (k < lt){
+                hi = lt;
+            }
+            else if (k >= gt){
+                lo = gt;
+            }
+            else {
+                return;
+            }
+        }
+    }
+
+    private void swap(int i, int j){
+        int city = order[i];
+        order[i] = order[j];
+        order[j] = city;
+    }
+
+    /**
+     * Make all cities live again, in O(n).
+     */
+    public void reset(){
+        System.arraycopy(initialLive, 0, live, 0, numCities);
+        Arrays.fill(nodeRemoved, false);
+        numLive = numCities;
+    }
+
+    /**
+     * Remove a city from the tree, in O(log n).
+     * @param city city index, numbered from 0
+     * @throws IllegalStateException if the city was removed already
+     */
+    public void remove(int city){
+        int position = positions[city];
+        if (nodeRemoved[position]){
+            throw new IllegalStateException("Error: city " + city + " was removed already.");
+        }
+        nodeRemoved[position] = true;
+        numLive --;
+        int lo = 0, hi = numCities;
+        while (true){
+            int mid = (lo + hi) >>> 1;
+            live[mid] --;
+            if (mid == position){
+                return;
+            }
+            if (position < mid){
+                hi = mid;
+            }
+            else {
+                lo = mid + 1;
+            }
+        }
+    }
+
+    /**
+     * Get the cities in the order of the tree, in which consecutive cities are mostly close to each other.
+     * Running many queries in this order keeps the visited part of the tree in the cache.
+     * @return all city indices in tree order
+     */
+    public int[] getCitiesInTreeOrder(){
+        return order.clone();
+    }
+
+    public boolean isRemoved(int city){
+        return nodeRemoved[positions[city]];
+    }
+
+    public int getNumLive(){
+        return numLive;
+    }
+
+    /**
+     * Get the work done by the queries, for SolverMetrics.
+     * @return number of nodes with live cities visited by all nearest() calls on this tree, a copy counts on its own
+     */
+    public long getNumExamined(){
+        return numExamined;
+    }
+
+    /**
+     * Find the live city nearest to a point.
+     * @param x x coordinate of the point
+     * @param y y coordinate of the point
+     * @return index of the nearest live city, the lowest one among cities at the same distance, or -1 if none is live
+     */
+    public int nearest(double x, double y){
+        queryX = x;
+        queryY = y;
+        bestCity = -1;
+        bestSquaredDist = Double.POSITIVE_INFINITY;
+        search(0, numCities);
+        return bestCity;
+    }
+
+    private void search(int lo, int hi){
+        while (lo < hi){
+            int mid = (lo + hi) >>> 1;
+            if (live[mid] == 0){
+                return;
+            }
+            numExamined ++;
+            double dx = nodeXs[mid] - queryX;
+            double dy = nodeYs[mid] - queryY;
+            if (!nodeRemoved[mid]){
+                int city = order[mid];
+                double squaredDist = dx * dx + dy * dy;
+                if (squaredDist < bestSquaredDist || (squaredDist == bestSquaredDist && city < bestCity)){
+                    bestSquaredDist = squaredDist;
+                    bestCity = city;
+                }
+            }
+            double planeDist = splitOnY[mid] ? -dy : -dx; //query minus split value on the split dimension
+            //search the side of the query first, then the other side if its plane is close enough
+            if (planeDist < 0){
+                search(lo, mid);
+                if (planeDist * planeDist > bestSquaredDist){
+                    return;
+                }
+                lo = mid + 1;
+            }
+            else {
+                search(mid + 1, hi);
+                if (planeDist * planeDist > bestSquaredDist){
+                    return;
+                }
+                hi = mid;
+            }
+        }
+    }
+
+    /**
+     * Find the k live cities nearest to a point.
+     * @param x x coordinate of the point
+     * @param y y coordinate of the point
+     * @param k number of cities to find
+     * @param result receives the cities, nearest first and the lower index first at the same distance
+     * @return number of cities found, less than k if fewer cities are live
+     */
+    public int nearest(double x, double y, int k, int[] result){
+        queryX = x;
+        queryY = y;
+        foundCities = result;
+        if (foundSquaredDists == null || foundSquaredDists.length < k){
+            foundSquaredDists = new double[k];
+        }
+        numFound = 0;
+        if (k > 0){
+            searchK(0, numCities, k);
+        }
+        foundCities = null;
+        return numFound;
+    }
+
+    private void searchK(int lo, int hi, int k){
+        while (lo < hi){
+            int mid = (lo + hi) >>> 1;
+            if (live[mid] == 0){
+                return;
+            }
+            numExamined ++;
+            double dx = nodeXs[mid] - queryX;
+            double dy = nodeYs[mid] - queryY;
+            if (!nodeRemoved[mid]){
+                insertFound(order[mid], dx * dx + dy * dy, k);
+            }
+            double planeDist = splitOnY[mid] ? -dy : -dx;
+            if (planeDist < 0){
+                searchK(lo, mid, k);
+                if (numFound == k && planeDist * planeDist > foundSquaredDists[k - 1]){
+                    return;
+                }
+                lo = mid + 1;
+            }
+            else {
+                searchK(mid + 1, hi, k);
+                if (numFound == k && planeDist * planeDist > foundSquaredDists[k - 1]){
+                    return;
+                }
+                hi = mid;
+            }
+        }
+    }
+
+    /**
+     * Insertion into the sorted list of found cities, k is small.
+     */
+    private void insertFound(int city, double squaredDist, int k){
+        int i = numFound;
+        while (i > 0 && (foundSquaredDists[i - 1] > squaredDist
+                || (foundSquaredDists[i - 1] == squaredDist && foundCities[i - 1] > city))){
+            if (i < k){
+                foundSquaredDists[i] = foundSquaredDists[i - 1];
+                foundCities[i] = foundCities[i - 1];
+            }
+            i --;
+        }
+        if (i < k){
+            foundSquaredDists[i] = squaredDist;
+            foundCities[i] = city;
+            numFound = Math.min(numFound + 1, k);
+        }
+    }
+}
@@ -0,0 +1,289 @@
+import java.io.Closeable;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.InputMismatchException;
+
+/**
+ * Project: Coursera Algorithms by Standford University: Shortest Paths Revisited, NP-Complete Problems and What To Do About Them.
+ * Description: Line-oriented number parser shared by the finders to read the assignment data files.
+ *              It reads the file through one reusable byte buffer and parses ints and decimals straight from the bytes,
+ *              so reading a file creates no String or array per line (Scanner.nextLine().split(" ") creates several).
+ *              Numbers on a line are separated by spaces or tabs, lines end with \n or \r\n and blank lines are skipped.
+ *              Malformed input throws InputMismatchException with the file name and the line number.
+ *
+ *              Typical use:
+ *                  int n = parser.nextInt(); parser.endLine();
+ *                  while (parser.hasNext()){ int a = parser.nextInt(); int b = parser.nextInt(); parser.endLine(); }
+ *
+ * @author : Zitao He
+ * @date : 2026-10-18 19:40
+ **/
+public class FastInputParser implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int END_OF_INPUT = -1;
+    private static final int MAX_EXACT_DIGITS = 15; //every integer with at most 15 digits is exact in a double
+    //powers of ten that are exact in a double
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    private final InputStream input;
+    private final String sourceName;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private int lineNumber = 1;
+    private char[] token = new char[64]; //characters of the current decimal, only read if it needs Double.parseDouble()
+
+    /**
+     * Open a file for parsing.
+     * @param fileName file to read
+     * @throws FileNotFoundException if the file is not found
+     */
+    public FastInputParser(String fileName) throws FileNotFoundException {
+        this(openFile(fileName), fileName);
+    }
+
+    /**
+     * Parse a stream.
+     * @param input stream to read, closed by close()
+     * @param sourceName name used in error messages
+     */
+    public FastInputParser(InputStream input, String sourceName){
+        this.input = input;
+        this.sourceName = sourceName;
+    }
+
+    private static InputStream openFile(String fileName) throws FileNotFoundException {
+        try {
+            return new FileInputStream(fileName);
+        } catch (FileNotFoundException e) {
+            throw new FileNotFoundException("Error: Input file is not found.");
+        }
+    }
+
+    /**
+     * Get the line the parser is on, numbered from 1.
+     * @return current line number
+     */
+    public int getLineNumber(){
+        return lineNumber;
+    }
+
+    /**
+     * Skip blank lines and check if there is more input.
+     * @return true if another number follows
+     */
+    public boolean hasNext(){
+        int c = peek();
+        while (c == ' ' || c == '\t' || c == '\r' || c == '\n'){
+            if (c == '\n'){
+                lineNumber ++;
+            }
+            position ++;
+            c = peek();
+        }
+        return c != END_OF_INPUT;
+    }
+
+    /**
+     * Finish the current line: only spaces may follow the last number. Blank lines after it are skipped as well.
+     * @throws InputMismatchException if the line has more text
+     */
+    public void endLine(){
+        int c = skipSpaces();
+        if (c != '\n' && c != END_OF_INPUT){
+            throw error("expected the end of the line but found " + describe(c));
+        }
+        hasNext();
+    }
+
+    /**
+     * Parse the next int on the current line.
+     * @return the number
+     * @throws InputMismatchException if the line has no more numbers or the next token is not an int
+     */
+    public int nextInt(){
+        int c = skipSpaces();
+        boolean negative = c == '-';
+        if (c == '-' || c == '+'){
+            position ++;
+            c = peek();
+        }
+        if (!isDigit(c)){
+            throw error("expected an integer but found " + describe(c));
+        }
+        long value = 0;
+        while (isDigit(c)){
+            value = value * 10 + (c - '0');
+            if (value > (long) Integer.MAX_VALUE + 1){
+                throw error("integer out of range");
+            }
+            position ++;
+            c = peek();
+        }
+        if (!isDelimiter(c)){
+            throw error("malformed integer, unexpected " + describe(c));
+        }
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE){
+            throw error("integer out of range");
+        }
+        return (int) value;
+    }
+
+    /**
+     * Parse the next decimal on the current line, like 9983.3333, -2, 1.5e3. Numbers with at most 15 digits and a
+     * small exponent are computed directly from the digits (one exact double times or divided by an exact power of ten,
+     * which rounds correctly), longer ones fall back to Double.parseDouble(). Both give the same result as Double.parseDouble().
+     * @return the number
+     * @throws InputMismatchException if the line has no more numbers or the next token is not a decimal
+     */
+    public double nextDouble(){
+        int c = skipSpaces();
+        int length = 0;
+        boolean negative = c == '-';
+        if (c == '-' || c == '+'){
+            length = append(length, c);
+            position ++;
+            c = peek();
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean anyDigit = false;
+        while (isDigit(c)){
+            anyDigit = true;
+            if (mantissa != 0 || c != '0'){
+                digits ++;
+            }
+            mantissa = digits <= MAX_EXACT_DIGITS ? mantissa * 10 + (c - '0') : mantissa;
+            length = append(length, c);
+            position ++;
+            c = peek();
+        }
+        if (c == '.'){
+            length = append(length, c);
+            position ++;
+            c = peek();
+            while (isDigit(c)){
+                anyDigit = true;
+                if (mantissa != 0 || c != '0'){
+                    digits ++;
+                }
+                mantissa = digits <= MAX_EXACT_DIGITS ? mantissa * 10 + (c - '0') : mantissa;
+                exponent --;
+                length = append(length, c);
+                position ++;
+                c = peek();
+            }
+        }
+        if (!anyDigit){
+            throw error("expected a decimal but found " + describe(c));
+        }
+        boolean longExponent = false;
+        if (c == 'e' || c == 'E'){
+            length = append(length, c);
+            position ++;
+            c = peek();
+            boolean negativeExponent = c == '-';
+            if (c == '-' || c == '+'){
+                length = append(length, c);
+                position ++;
+                c = peek();
+            }
+            if (!isDigit(c)){
+                throw error("malformed decimal exponent, unexpected " + describe(c));
+            }
+            int written = 0;
+            while (isDigit(c)){
+                written = written * 10 + (c - '0');
+                longExponent |= written > POWERS_OF_TEN.length;
+                written = Math.min(written, 10000);
+                length = append(length, c);
+                position ++;
+                c = peek();
+            }
+            exponent += negativeExponent ? -written : written;
+        }
+        if (!isDelimiter(c)){
+            throw error("malformed decimal, unexpected " + describe(c));
+        }
+
+        if (digits > MAX_EXACT_DIGITS || longExponent || exponent < -(POWERS_OF_TEN.length - 1) || exponent > POWERS_OF_TEN.length - 1){
+            return Double.parseDouble(new String(token, 0, length));
+        }
+        double value = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+        return negative ? -value : value;
+    }
+
+    @Override
+    public void close(){
+        try {
+            input.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error: failed to close " + sourceName + ".", e);
+        }
+    }
+
+    private int append(int length, int c){
+        if (length == token.length){
+            char[] larger = new char[2 * token.length];
+            System.arraycopy(token, 0, larger, 0, length);
+            token = larger;
+        }
+        token[length] = (char) c;
+        return length + 1;
+    }
+
+    private int skipSpaces(){
+        int c = peek();
+        while (c == ' ' || c == '\t' || c == '\r'){
+            position ++;
+            c = peek();
+        }
+        return c;
+    }
+
+    private int peek(){
+        if (position == limit){
+            try {
+                limit = input.read(buffer, 0, buffer.length);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error: failed to read " + sourceName + ".", e);
+            }
+            position = 0;
+            if (limit <= 0){
+                limit = 0;
+                return END_OF_INPUT;
+            }
+        }
+        return buffer[position] & 0xFF;
+    }
+
+    private static boolean isDigit(int c){
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isDelimiter(int c){
+        return c == ' ' || c == '\t' || c == '\r' || c == '\n' || c == END_OF_INPUT;
+    }
+
+    private static String describe(int c){
+        if (c == END_OF_INPUT){
+            return "the end of the file";
+        }
+        if (c == '\n'){
+            return "the end of the line";
+        }
+        return "'" + (char) c + "'";
+    }
+
+    private InputMismatchException error(String message){
+        return new InputMismatchException("Error: " + sourceName + " line " + lineNumber + ": " + message + ".");
+    }
+}
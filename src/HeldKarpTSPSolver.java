@@ -0,0 +1,321 @@
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.InputMismatchException;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Project: Coursera Algorithms by Standford University: Shortest Paths Revisited, NP-Complete Problems and What To Do About Them.
+ * Description: Exact TSP with the Held-Karp dynamic program, for the small instances of the Week 2 Programming Assignment
+ *              (tsp.txt has 25 cities, the file format is the number of cities on the first line, then "x y" per city).
+ *
+ *              The tour starts at a fixed city, the other m = n - 1 cities are bits of a subset mask.
+ *              A[S][j] is the length of the shortest path from the start through all cities of S, ending at j in S:
+ *
+ *                  A[{j}][j] = d(start, j),   A[S][j] = min over i in S - {j} of A[S - {j}][i] + d(i, j)
+ *
+ *              Layer k holds all subsets of size k and only reads layer k - 1, so only two layers are kept.
+ *              The subsets of a layer are numbered by their colex rank, sum of C(e_q, q + 1) over their bits
+ *              e_0 < e_1 < ... (combinatorial number system), which is also the order Gosper's hack enumerates them in.
+ *              Layer k is a float[] of C(m, k) * k entries: subset of rank r, q-th bit of it as end city at r * k + q.
+ *              So 25 cities need two layers of at most C(24, 12) * 12 floats, about 260 MB, instead of 24 * 2^24 entries.
+ *              The subsets of a layer are independent, with parallelism above 1 rank ranges are spread over a ForkJoinPool.
+ *
+ *              Floats keep about 7 significant digits, enough for the integer part of tours like tsp.txt's.
+ *              Only lengths are computed, the two-layer scheme doesn't keep what a tour reconstruction would need.
+ *
+ *              Split mode: tsp-first-half.txt and tsp-second-half.txt share two cities a and b. The shortest path a -> b
+ *              through the first half plus the shortest path b -> a through the second half is a tour of all cities,
+ *              and it is optimal if an optimal tour crosses between the halves only at a and b.
+ *
+ * @author : Zitao He
+ * @date : 2026-10-19 00:50
+ **/
+public class HeldKarpTSPSolver {
+
+    private static final int MAX_CITIES = 31; //subsets of the other cities are int masks
+    private static final int MIN_TASK_SUBSETS = 1 << 12;
+
+    private final int numCities;
+    private final double[] cityXs; //x coordinate of city i is cityXs[i - 1]
+    private final double[] cityYs;
+    private final int parallelism;
+    private final int[][] binomials; //binomials[a][b] is C(a, b)
+
+    /**
+     * Construct the problem from coordinates.
+     * @param cityXs x coordinate of every city
+     * @param cityYs y coordinate of every city
+     * @param parallelism number of worker threads, 1 runs everything on the calling thread
+     * @throws IllegalArgumentException if there are more than MAX_CITIES cities or parallelism is below 1
+     */
+    public HeldKarpTSPSolver(double[] cityXs, double[] cityYs, int parallelism){
+        if (cityXs.length != cityYs.length || cityXs.length > MAX_CITIES){
+            throw new IllegalArgumentException("Error: need the same number of x and y coordinates, at most " + MAX_CITIES + " cities.");
+        }
+        if (parallelism < 1){
+            throw new IllegalArgumentException("Error: parallelism must be at least 1.");
+        }
+        this.numCities = cityXs.length;
+        this.cityXs = cityXs.clone();
+        this.cityYs = cityYs.clone();
+        this.parallelism = parallelism;
+        binomials = new int[MAX_CITIES + 1][MAX_CITIES + 1];
+        for (int a = 0; a <= MAX_CITIES; a ++){
+            binomials[a][0] = 1;
+            for (int b = 1; b <= a; b ++){
+                binomials[a][b] = binomials[a - 1][b - 1] + binomials[a - 1][b];
+            }
+        }
+    }
+
+    /**
+     * Construct the problem using external txt file (file format can be found in class description).
+     * @param fileInputName external txt file name
+     * @param parallelism number of worker threads, 1 runs everything on the calling thread
+     * @throws FileNotFoundException throws error if file is not found
+     * @throws InputMismatchException if a line of the file is malformed or the number of cities is wrong
+     */
+    public HeldKarpTSPSolver(String fileInputName, int parallelism) throws FileNotFoundException {
+        this(readCities(fileInputName), parallelism);
+    }
+
+    private HeldKarpTSPSolver(double[][] coordinates, int parallelism){
+        this(coordinates[0], coordinates[1], parallelism);
+    }
+
+    private static double[][] readCities(String fileInputName) throws FileNotFoundException {
+        try (FastInputParser parser = new FastInputParser(fileInputName)) {
+            int numCities = parser.nextInt();
+            parser.endLine();
+            double[] xs = new double[numCities];
+            double[] ys = new double[numCities];
+            int city = 0;
+            while (parser.hasNext()){
+                if (city == numCities){
+                    throw new InputMismatchException("Error: " + fileInputName + " line " + parser.getLineNumber()
+                            + ": more cities than the " + numCities + " given on the first line.");
+                }
+                xs[city] = parser.nextDouble();
+                ys[city] = parser.nextDouble();
+                parser.endLine();
+                city ++;
+            }
+            if (city != numCities){
+                throw new InputMismatchException("Error: " + fileInputName + " has " + city + " cities, the first line gives " + numCities + ".");
+            }
+            return new double[][]{xs, ys};
+        }
+    }
+
+    /**
+     * Compute the length of the shortest tour.
+     * @return length of an optimal tour, 0 for a single city
+     */
+    public double solve(){
+        if (numCities <= 1){
+            return 0;
+        }
+        int start = 0;
+        int[] cityOfBit = otherCities(start);
+        float[] ends = runLayers(start, cityOfBit);
+        double best = Double.POSITIVE_INFINITY;
+        for (int q = 0; q < cityOfBit.length; q ++){
+            best = Math.min(best, ends[q] + distance(cityOfBit[q], start));
+        }
+        return best;
+    }
+
+    /**
+     * Compute the length of the shortest path from one city to another that visits every city once.
+     * @param fromCity first city of the path, numbered from 1
+     * @param toCity last city of the path, numbered from 1
+     * @return length of the shortest such path
+     */
+    public double solvePath(int fromCity, int toCity){
+        if (fromCity < 1 || fromCity > numCities || toCity < 1 || toCity > numCities || fromCity == toCity){
+            throw new IllegalArgumentException("Error: need two different cities in 1.." + numCities + ".");
+        }
+        int[] cityOfBit = otherCities(fromCity - 1);
+        float[] ends = runLayers(fromCity - 1, cityOfBit);
+        for (int q = 0; q < cityOfBit.length; q ++){
+            if (cityOfBit[q] == toCity - 1){
+                return ends[q]; //the full set has rank 0, its q-th bit is bit q
+            }
+        }
+        throw new IllegalStateException("Error: city " + toCity + " has no bit.");
+    }
+
+    private int[] otherCities(int start){
+        int[] cityOfBit = new int[numCities - 1];
+        for (int city = 0, bit = 0; city < numCities; city ++){
+            if (city != start){
+                cityOfBit[bit ++] = city;
+            }
+        }
+        return cityOfBit;
+    }
+
+    /**
+     * Run all layers.
+     * @return the last layer: entry q is the shortest path from start through all cities ending at cityOfBit[q]
+     */
+    private float[] runLayers(int start, int[] cityOfBit){
+        int m = cityOfBit.length;
+        float[] distances = new float[m * m];
+        float[] previous = new float[m]; //layer 1, the subset {b} has rank C(b, 1) = b
+        for (int i = 0; i < m; i ++){
+            previous[i] = (float) distance(start, cityOfBit[i]);
+            for (int j = 0; j < m; j ++){
+                distances[i * m + j] = (float) distance(cityOfBit[i], cityOfBit[j]);
+            }
+        }
+        ForkJoinPool pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        try {
+            for (int k = 2; k <= m; k ++){
+                int numSubsets = binomials[m][k];
+                long entries = (long) numSubsets * k;
+                if (entries > Integer.MAX_VALUE - 8){
+                    throw new IllegalArgumentException("Error: " + numCities + " cities are too many for the layer tables.");
+                }
+                float[] current = new float[(int) entries];
+                final int layer = k;
+                final float[] source = previous;
+                if (pool == null || numSubsets < 2 * MIN_TASK_SUBSETS){
+                    relaxLayer(m, layer, 0, numSubsets, source, current, distances);
+                }
+                else {
+                    int taskSubsets = Math.max(MIN_TASK_SUBSETS, numSubsets / (8 * parallelism));
+                    List<ForkJoinTask<?>> tasks = new ArrayList<>();
+                    for (int from = 0; from < numSubsets; from += taskSubsets){
+                        final int fromRank = from;
+                        final int toRank = Math.min(from + taskSubsets, numSubsets);
+                        tasks.add(ForkJoinTask.adapt(() ->
+                                relaxLayer(m, layer, fromRank, toRank, source, current, distances)));
+                    }
+                    pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+                }
+                previous = current;
+            }
+        } finally {
+            if (pool != null){
+                pool.shutdown();
+            }
+        }
+        return previous;
+    }
+
+    /**
+     * Fill the entries of the subsets of size k with ranks fromRank to toRank - 1.
+     */
+    private void relaxLayer(int m, int k, int fromRank, int toRank, float[] previous, float[] current, float[] distances){
+        int[] bits = new int[k];
+        int[] rankWithout = new int[k]; //rank of the subset without its q-th bit, in layer k - 1
+        int subset = unrank(fromRank, k);
+        for (int rank = fromRank; rank < toRank; rank ++){
+            for (int rest = subset, q = 0; rest != 0; rest &= rest - 1, q ++){
+                bits[q] = Integer.numberOfTrailingZeros(rest);
+            }
+            //without bit q, the bits above it move down one place in the colex sum
+            int suffix = 0;
+            for (int q = k - 1; q >= 0; q --){
+                rankWithout[q] = suffix;
+                suffix += binomials[bits[q]][q];
+            }
+            int prefix = 0;
+            for (int q = 0; q < k; q ++){
+                rankWithout[q] += prefix;
+                prefix += binomials[bits[q]][q + 1];
+            }
+
+            for (int q = 0; q < k; q ++){
+                int j = bits[q];
+                int base = rankWithout[q] * (k - 1);
+                int row = j * m; //distances are symmetric, row j holds d(i, j) for all i
+                float best = Float.POSITIVE_INFINITY;
+                for (int p = 0; p < q; p ++){ //bits below q keep their place without bit q
+                    best = Math.min(best, previous[base + p] + distances[row + bits[p]]);
+                }
+                for (int p = q + 1; p < k; p ++){
+                    best = Math.min(best, previous[base + p - 1] + distances[row + bits[p]]);
+                }
+                current[rank * k + q] = best;
+            }
+
+            //Gosper's hack: next larger int with the same number of bits
+            int lowest = subset & -subset;
+            int ripple = subset + lowest;
+            subset = (((ripple ^ subset) >>> 2) / lowest) | ripple;
+        }
+    }
+
+    /**
+     * Subset of size k with the given colex rank.
+     */
+    private int unrank(int rank, int k){
+        int subset = 0;
+        for (int i = k; i >= 1; i --){
+            int e = i - 1;
+            while (binomials[e + 1][i] <= rank){
+                e ++;
+            }
+            subset |= 1 << e;
+            rank -= binomials[e][i];
+        }
+        return subset;
+    }
+
+    private double distance(int city, int otherCity){
+        double dx = cityXs[city] - cityXs[otherCity];
+        double dy = cityYs[city] - cityYs[otherCity];
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    /**
+     * Split mode: solve two halves of an instance that share exactly two cities and join their paths into a tour.
+     * @param firstHalfFile first half, in the format of tsp.txt
+     * @param secondHalfFile second half, in the format of tsp.txt
+     * @param parallelism number of worker threads
+     * @return length of the joined tour
+     * @throws FileNotFoundException if a file is not found
+     * @throws IllegalArgumentException if the halves don't share exactly two cities
+     */
+    public static double solveSplit(String firstHalfFile, String secondHalfFile, int parallelism) throws FileNotFoundException {
+        HeldKarpTSPSolver first = new HeldKarpTSPSolver(firstHalfFile, parallelism);
+        HeldKarpTSPSolver second = new HeldKarpTSPSolver(secondHalfFile, parallelism);
+        int[] sharedFirst = new int[2]; //shared cities, numbered from 1, in first and in second
+        int[] sharedSecond = new int[2];
+        int numShared = 0;
+        for (int i = 0; i < first.numCities; i ++){
+            for (int j = 0; j < second.numCities; j ++){
+                if (first.cityXs[i] == second.cityXs[j] && first.cityYs[i] == second.cityYs[j]){
+                    if (numShared == 2){
+                        throw new IllegalArgumentException("Error: the halves share more than two cities.");
+                    }
+                    sharedFirst[numShared] = i + 1;
+                    sharedSecond[numShared] = j + 1;
+                    numShared ++;
+                }
+            }
+        }
+        if (numShared != 2){
+            throw new IllegalArgumentException("Error: the halves share " + numShared + " cities, the split mode needs two.");
+        }
+        return first.solvePath(sharedFirst[0], sharedFirst[1]) + second.solvePath(sharedSecond[1], sharedSecond[0]);
+    }
+
+    public static void main(String[] args) throws FileNotFoundException {
+        int parallelism = Runtime.getRuntime().availableProcessors();
+
+        //Correct answer for assignment is 26442
+        long clockStart = System.currentTimeMillis();
+        double split = solveSplit("data/tsp-first-half.txt", "data/tsp-second-half.txt", parallelism);
+        System.out.println("Split mode tour length of tsp.txt is: " + split + " (" + (System.currentTimeMillis() - clockStart) / 1000.0 + " seconds)");
+
+        clockStart = System.currentTimeMillis();
+        HeldKarpTSPSolver tester = new HeldKarpTSPSolver("data/tsp.txt", parallelism);
+        System.out.println("Minimum tour length of tsp.txt is: " + tester.solve()
+                + " (" + (System.currentTimeMillis() - clockStart) / 1000.0 + " seconds on " + parallelism + " threads)");
+    }
+}
@@ -1,9 +1,11 @@
-import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.Scanner;
+import java.util.InputMismatchException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Project: Coursera Algorithms by Standford University: Shortest Paths Revisited, NP-Complete Problems and What To Do About Them.
@@ -44,121 +46,359 @@ import java.util.Scanner;
  * @date : 2021-02-13 00:03
  **/
 public class HeuristicTSPMinCostFinder {
+    private static final int IMPROVER_NEIGHBORS = 10; //candidate neighbors per city of the 2-opt and Or-opt moves
+    private static final long IMPROVEMENT_BUDGET_MILLIS = 10_000;
+    private static final long MULTI_START_SEED = 1;
+    private static final long MULTI_START_BUDGET_MILLIS = 3_000;
+    private static final int PROGRESS_CITIES = 1 << 14; //cities placed between two updates of the metrics
     private final int numCities;
-    private ArrayList<double[]> cities;
-    private HashSet<Integer> visited;
+    private final double[] cityXs; //x coordinate of city i is cityXs[i - 1]
+    private final double[] cityYs;
+    private final CityKDTree cityTree; //unvisited cities of the running tour
+    private TSPTourImprover tourImprover; //built on the first call of runImprovedTour()
     private final int startCity;
+    private SolverMetrics metrics; //null if nothing is counted
 
     /**
      * Construct the TSP problem using external txt file (file format can be found in class description)
      * @param fileInputName external txt file name
      * @throws FileNotFoundException throws error if file is not found
+     * @throws InputMismatchException if a line of the file is malformed or the number of cities is wrong
      */
     public HeuristicTSPMinCostFinder(String fileInputName) throws FileNotFoundException {
-        Scanner fileScanner;
-        cities = new ArrayList<>();
+        this(fileInputName, null);
+    }
+
+    /**
+     * Construct the TSP problem from a file, timing the parsing and the 2-d tree (as preprocessing)
+     * and counting in metrics afterwards, see setMetrics().
+     * @param fileInputName external txt file name
+     * @param metrics metrics of the finder, or null
+     * @throws FileNotFoundException throws error if file is not found
+     * @throws InputMismatchException if a line of the file is malformed or the number of cities is wrong
+     */
+    public HeuristicTSPMinCostFinder(String fileInputName, SolverMetrics metrics) throws FileNotFoundException {
         startCity = 1;
+        this.metrics = metrics;
+        SolverMetrics.PhaseTimer parseTimer = SolverMetrics.startPhase(metrics, SolverMetrics.Phase.PARSE);
+        try (FastInputParser parser = new FastInputParser(fileInputName)) {
+            numCities = parser.nextInt();
+            if (numCities < 1){
+                throw new InputMismatchException("Error: " + fileInputName + " line 1: number of cities "
+                        + numCities + " is not positive.");
+            }
+            parser.endLine();
+            cityXs = new double[numCities];
+            cityYs = new double[numCities];
+            int city = 0;
+            while (parser.hasNext()){
+                if (city == numCities){
+                    throw new InputMismatchException("Error: " + fileInputName + " line " + parser.getLineNumber()
+                            + ": more cities than the " + numCities + " given on the first line.");
+                }
+                parser.nextInt(); //city number
+                cityXs[city] = parser.nextDouble();
+                cityYs[city] = parser.nextDouble();
+                parser.endLine();
+                city ++;
+            }
+            if (city != numCities){
+                throw new InputMismatchException("Error: " + fileInputName + " has " + city + " cities, the first line gives " + numCities + ".");
+            }
+        } finally {
+            parseTimer.stop();
+        }
+        SolverMetrics.PhaseTimer preprocessTimer = SolverMetrics.startPhase(metrics, SolverMetrics.Phase.PREPROCESS);
         try {
-            fileScanner = new Scanner(new File(fileInputName));
-        } catch (IOException e) {
-            throw new FileNotFoundException("Error: Input file is not found.");
-        }
-        numCities = Integer.parseInt(fileScanner.nextLine());
-        while (fileScanner.hasNextLine()){
-            String[] cityString = fileScanner.nextLine().split(" ");
-            double cityX = Double.parseDouble(cityString[1]);
-            double cityY = Double.parseDouble(cityString[2]);
-            double[] cityCoordinates = {cityX, cityY};
-            cities.add(cityCoordinates);
-        }
-        visited = new HashSet<>();
+            cityTree = new CityKDTree(cityXs, cityYs);
+        } finally {
+            preprocessTimer.stop();
+        }
     }
 
     /**
-     * Run the heuristic greedy TSP algorithm
-     * @return The array list that represents shortest path computed from the heuristic greedy TSP algorithm.
-     *         The list starts with start city 1 and ends with start city 1.
+     * Count in metrics: the tours are timed as solving and count the cities they place and the 2-d tree nodes
+     * they examine, every PROGRESS_CITIES cities.
+     * @param metrics metrics to count in, null (the default) to count nothing
      */
-    public ArrayList<Integer> runHeuristicTSP(){
+    public void setMetrics(SolverMetrics metrics){
+        this.metrics = metrics;
+    }
+
+    /**
+     * Run the heuristic greedy TSP algorithm. The nearest unvisited city is found with a 2-d tree (see CityKDTree),
+     * so the cities don't have to be sorted in any way and a step takes about O(log n) instead of a scan.
+     * Candidates are compared by squared distance and the loop allocates nothing, the tour array is the only allocation.
+     * @return the tour as city IDs, tour[0] and tour[numCities] are the start city 1
+     */
+    public int[] runHeuristicTour(){
+        SolverMetrics.PhaseTimer solveTimer = SolverMetrics.startPhase(metrics, SolverMetrics.Phase.SOLVE);
+        try {
+            int[] tour = new int[numCities + 1];
+            buildTour(startCity, cityTree, tour);
+            return tour;
+        } finally {
+            solveTimer.stop();
+        }
+    }
+
+    /**
+     * Build the nearest neighbor tour from a start city.
+     * @param fromCity start city ID
+     * @param tree tree over all cities, reset here, so that the tour can be computed more than once
+     * @param tour receives the tour as city IDs, tour[0] and tour[numCities] are fromCity
+     */
+    private void buildTour(int fromCity, CityKDTree tree, int[] tour){
+        tree.reset();
+        int currCity = fromCity - 1; //array index of the current city
+        tree.remove(currCity);
+        tour[0] = fromCity;
+        long reportedExamined = tree.getNumExamined();
+        for (int chunkStart = 1; chunkStart < numCities; chunkStart += PROGRESS_CITIES){
+            int chunkEnd = Math.min(chunkStart + PROGRESS_CITIES, numCities);
+            for (int step = chunkStart; step < chunkEnd; step ++){
+                //closest unvisited city, if there is a tie, take the city that has smaller ID
+                currCity = tree.nearest(cityXs[currCity], cityYs[currCity]);
+                tree.remove(currCity);
+                tour[step] = currCity + 1;
+            }
+            if (metrics != null){
+                metrics.add(SolverMetrics.Counter.TSP_CITIES_PLACED, chunkEnd - chunkStart + (chunkStart == 1 ? 1 : 0));
+                long examined = tree.getNumExamined();
+                metrics.add(SolverMetrics.Counter.TSP_CANDIDATES, examined - reportedExamined);
+                reportedExamined = examined;
+                metrics.progress();
+            }
+        }
+        tour[numCities] = fromCity; //the final city is the start city
+    }
 
-        //int[] path = new int[numCities + 1];//number of cities plus one (start city appears twice in path)
-        ArrayList<Integer> path = new ArrayList<>();
-        int currCityID = startCity; //initialize the currCity with the first city
-        path.add(currCityID);
-        while (visited.size() != numCities){
+    /**
+     * Best tour of a multi-start run.
+     */
+    public static class MultiStartResult {
+        private final int[] tour;
+        private final double length;
+        private final int numTours;
+        private final double millis;
 
-            int leftNearestCityID = -1;
-            double leftMinDist = Integer.MAX_VALUE;
+        MultiStartResult(int[] tour, double length, int numTours, double millis){
+            this.tour = tour;
+            this.length = length;
+            this.numTours = numTours;
+            this.millis = millis;
+        }
 
-            int rightNearestCityID = -1;
-            double rightMinDist = Integer.MAX_VALUE;
+        /**
+         * Get the best tour.
+         * @return city IDs, the first and the last are its start city
+         */
+        public int[] getTour() {
+            return tour.clone();
+        }
 
-            //iteration to left of curr city, i is the city id, not array index
-            for (int i = currCityID - 1; i >= 1; i --){
-                if (visited.contains(i)){
-                    continue;
-                }
-                double currCityX = cities.get(currCityID-1)[0];
-                double otherCityX = cities.get(i - 1)[0];
-                if (getEuclideanDist(currCityID, i) <= leftMinDist){ //if there is a tie, take the city that has smaller ID
-                    leftMinDist = getEuclideanDist(currCityID, i);
-                    leftNearestCityID = i;
-                }
-                if (currCityX - otherCityX > leftMinDist){ //The city X value is sorted in original file, so right value of X is always bigger than left value of X.
-                    break;                                 //If X difference between two cities is already greater than min disc,
-                }                                          // any further cities will be more distant than the city that has min distance.
+        public double getLength() {
+            return length;
+        }
+
+        public int getStartCity() {
+            return tour[0];
+        }
+
+        public int getNumTours() {
+            return numTours;
+        }
+
+        public double getMillis() {
+            return millis;
+        }
+
+        /**
+         * Get the throughput of the run.
+         * @return tours built per second
+         */
+        public double getToursPerSecond() {
+            return millis > 0 ? numTours * 1000.0 / millis : 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("best %.1f from city %d, %d tours in %.0f ms (%.1f tours/s)",
+                    length, getStartCity(), numTours, millis, getToursPerSecond());
+        }
+    }
+
+    /**
+     * Run the nearest neighbor heuristic from many start cities concurrently and keep the shortest tour.
+     * The start cities are city 1 and then the others in a fixed random order, so a run that stops early
+     * has still tried starts from all over the map. Every worker has its own copy of the 2-d tree over the shared
+     * coordinates (see CityKDTree.copy()) and its own tour arrays. Equal lengths go to the lower start city,
+     * so the result only depends on which starts were run.
+     * @param parallelism number of worker threads of the ForkJoinPool
+     * @param maxStarts number of start cities to try, at most the number of cities
+     * @param budgetMillis time budget in milliseconds, no new tour is started after it, 0 for no budget
+     * @return the best tour and the throughput
+     */
+    public MultiStartResult runMultiStart(int parallelism, int maxStarts, long budgetMillis){
+        if (parallelism < 1 || maxStarts < 1 || budgetMillis < 0){
+            throw new IllegalArgumentException("Error: need parallelism and starts of at least 1 and a non-negative budget.");
+        }
+        SolverMetrics.PhaseTimer solveTimer = SolverMetrics.startPhase(metrics, SolverMetrics.Phase.SOLVE);
+        try {
+            long clockStart = System.nanoTime();
+            long deadline = budgetMillis == 0 ? Long.MAX_VALUE : clockStart + budgetMillis * 1_000_000L;
+            int[] starts = startOrder();
+            int numStarts = Math.min(maxStarts, numCities);
+            AtomicInteger nextStart = new AtomicInteger();
+            AtomicInteger numTours = new AtomicInteger();
 
+            List<ForkJoinTask<int[]>> workers = new ArrayList<>();
+            for (int w = 0; w < parallelism; w ++){
+                workers.add(ForkJoinTask.adapt(() -> {
+                    CityKDTree tree = cityTree.copy();
+                    int[] best = null;
+                    double bestLength = Double.POSITIVE_INFINITY;
+                    int[] tour = new int[numCities + 1];
+                    int s;
+                    while ((s = nextStart.getAndIncrement()) < numStarts && System.nanoTime() < deadline){
+                        buildTour(starts[s], tree, tour);
+                        numTours.incrementAndGet();
+                        double length = getTourLength(tour);
+                        if (length < bestLength || (length == bestLength && tour[0] < best[0])){
+                            int[] previous = best;
+                            best = tour;
+                            bestLength = length;
+                            tour = previous == null ? new int[numCities + 1] : previous;
+                        }
+                    }
+                    return best;
+                }));
+            }
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(workers)));
+            } finally {
+                pool.shutdown();
             }
 
-            //iteration to right of curr city, i is the city id, not array index
-            for (int j = currCityID + 1; j <= numCities; j ++){
-                if (visited.contains(j)){
-                    continue;
-                }
-                double currCityX = cities.get(currCityID-1)[0];
-                double otherCityX = cities.get(j - 1)[0];
-                if (getEuclideanDist(currCityID, j) < rightMinDist){
-                    rightMinDist = getEuclideanDist(currCityID, j);
-                    rightNearestCityID = j;
+            int[] best = null;
+            double bestLength = Double.POSITIVE_INFINITY;
+            for (ForkJoinTask<int[]> worker : workers){
+                int[] tour = worker.join();
+                if (tour == null){
+                    continue; //the budget ran out before this worker started a tour
                 }
-                if (otherCityX - currCityX > rightMinDist){
-                    break;
+                double length = getTourLength(tour);
+                if (length < bestLength || (length == bestLength && tour[0] < best[0])){
+                    best = tour;
+                    bestLength = length;
                 }
             }
+            if (best == null){
+                best = new int[numCities + 1]; //budget 0 or too short for a single tour: the tour from city 1
+                buildTour(startCity, cityTree, best);
+                bestLength = getTourLength(best);
+                numTours.incrementAndGet();
+            }
+            return new MultiStartResult(best, bestLength, numTours.get(), (System.nanoTime() - clockStart) / 1e6);
+        } finally {
+            solveTimer.stop();
+        }
+    }
 
-            visited.add(currCityID);
+    /**
+     * Start cities of runMultiStart(): city 1 first, then the other cities shuffled with a fixed seed.
+     */
+    private int[] startOrder(){
+        int[] starts = new int[numCities];
+        for (int i = 0; i < numCities; i ++){
+            starts[i] = i + 1;
+        }
+        Random rand = new Random(MULTI_START_SEED);
+        for (int i = numCities - 1; i > 1; i --){
+            int j = 1 + rand.nextInt(i);
+            int city = starts[i];
+            starts[i] = starts[j];
+            starts[j] = city;
+        }
+        return starts;
+    }
 
-            //next iteration is on the closer city between left nearest city and right nearest city.
-            if (leftMinDist <= rightMinDist){
-                path.add(leftNearestCityID);
-                currCityID = leftNearestCityID;
-            }
-            else {
-                path.add(rightNearestCityID);
-                currCityID = rightNearestCityID;
-            }
+    /**
+     * Run the heuristic greedy TSP algorithm, see runHeuristicTour().
+     * @return The array list that represents shortest path computed from the heuristic greedy TSP algorithm.
+     *         The list starts with start city 1 and ends with start city 1.
+     */
+    public ArrayList<Integer> runHeuristicTSP(){
+        int[] tour = runHeuristicTour();
+        ArrayList<Integer> path = new ArrayList<>(tour.length);
+        for (int cityID : tour){
+            path.add(cityID);
+        }
+        return path;
+    }
 
-            if (path.size() == numCities){
-                path.add(startCity); //the final city is the start city
-                break;
+    /**
+     * Run the heuristic greedy TSP algorithm and improve its tour with 2-opt and Or-opt moves (see TSPTourImprover).
+     * @param budgetMillis time budget of the improvement in milliseconds, 0 to run until no move improves the tour
+     * @return the tour as city IDs, tour[0] and tour[numCities] are the start city 1
+     */
+    public int[] runImprovedTour(long budgetMillis){
+        if (tourImprover == null){
+            SolverMetrics.PhaseTimer preprocessTimer = SolverMetrics.startPhase(metrics, SolverMetrics.Phase.PREPROCESS);
+            try {
+                tourImprover = new TSPTourImprover(cityXs, cityYs, IMPROVER_NEIGHBORS);
+            } finally {
+                preprocessTimer.stop();
             }
         }
-        return path;
+        int[] greedyTour = runHeuristicTour();
+        int[] cities = new int[numCities];
+        for (int i = 0; i < numCities; i ++){
+            cities[i] = greedyTour[i] - 1;
+        }
+        int[] improved;
+        SolverMetrics.PhaseTimer solveTimer = SolverMetrics.startPhase(metrics, SolverMetrics.Phase.SOLVE);
+        try {
+            improved = tourImprover.improve(cities, budgetMillis);
+        } finally {
+            solveTimer.stop();
+        }
+        int[] tour = new int[numCities + 1];
+        for (int i = 0; i < numCities; i ++){
+            tour[i] = improved[i] + 1;
+        }
+        tour[numCities] = startCity;
+        return tour;
     }
 
     /**
-     * Compute the total distance of the shortest path
+     * Get the improver used by the last runImprovedTour(), with its move counts and the tour length against time.
+     * @return the improver, or null if runImprovedTour() wasn't called
+     */
+    public TSPTourImprover getTourImprover(){
+        return tourImprover;
+    }
+
+    /**
+     * Compute the length of a tour.
+     * @param tour city IDs, the first and the last are the same city
+     * @return sum of the Euclidean lengths of its edges
+     */
+    public double getTourLength(int[] tour){
+        double length = 0;
+        for (int i = 0; i < tour.length - 1; i ++){
+            length += getEuclideanDist(tour[i], tour[i + 1]);
+        }
+        return length;
+    }
+
+    /**
+     * Compute the total distance of the shortest path. The square roots are only taken here, once per edge of the tour.
      * @return The total distance of the shortest path
      */
     public double getTSPMinDist(){
-        double minDist = 0;
-        ArrayList<Integer> shortestPath = runHeuristicTSP();
-        for (int i = 0; i < shortestPath.size() - 1; i ++){
-            int cityID = shortestPath.get(i);
-            int nextCityID = shortestPath.get(i + 1);
-            minDist += getEuclideanDist(cityID, nextCityID);
-        }
-        return minDist;
+        return getTourLength(runHeuristicTour());
     }
 
     /**
@@ -168,23 +408,67 @@ public class HeuristicTSPMinCostFinder {
      * @return  Euclidean distance between two cities.
      */
     public double getEuclideanDist(int cityID, int otherCityID){
-        double cityX = cities.get(cityID-1)[0];
-        double cityY = cities.get(cityID-1)[1];
-        double otherCityX = cities.get(otherCityID-1)[0];
-        double otherCityY = cities.get(otherCityID-1)[1];
-        return Math.sqrt(Math.pow(cityX - otherCityX, 2) + Math.pow(cityY - otherCityY, 2));
+        double dx = cityXs[cityID - 1] - cityXs[otherCityID - 1];
+        double dy = cityYs[cityID - 1] - cityYs[otherCityID - 1];
+        return Math.sqrt(dx * dx + dy * dy);
     }
 
+    /**
+     * Print the answer of the assignment. The stages beyond the assignment only run when asked for:
+     * -improve prints the length of the improved tour against time,
+     * -multistart the number of multi-start tours on 1, 2, 4, ... threads up to the number of cores.
+     */
     public static void main(String[] args) throws FileNotFoundException {
+        boolean improve = false;
+        boolean multiStart = false;
+        for (String arg : args){
+            if (arg.equals("-improve")){
+                improve = true;
+            }
+            else if (arg.equals("-multistart")){
+                multiStart = true;
+            }
+            else {
+                throw new IllegalArgumentException("Error: unknown argument " + arg + ", use -improve or -multistart.");
+            }
+        }
+
         //nn-test1.txt has computed path: 1 3 2 5 6 4 1, TSP distance:15.2361
         //HeuristicTSPMinCostFinder tester  = new HeuristicTSPMinCostFinder("data/nn-test1.txt");
 
         //Correct answer for assignment is 1203406
-        HeuristicTSPMinCostFinder tester  = new HeuristicTSPMinCostFinder("data/nn.txt");
+        SolverMetrics metrics = new SolverMetrics("nn.txt");
+        HeuristicTSPMinCostFinder tester  = new HeuristicTSPMinCostFinder("data/nn.txt", metrics);
         long clockStart = System.currentTimeMillis();
         System.out.println("Computed TPS minimum distance is: " + tester.getTSPMinDist());
         long clockEnd = System.currentTimeMillis();
         long runTime = clockEnd - clockStart;
         System.out.println("Run time is: " + (double)runTime/1000 + " seconds");
+        System.out.println("  " + metrics);
+        tester.setMetrics(null); //the runs below are not counted
+
+        if (improve){
+            //improvement stage, not part of the assignment: length of the improved tour against time
+            clockStart = System.currentTimeMillis();
+            int[] improvedTour = tester.runImprovedTour(IMPROVEMENT_BUDGET_MILLIS);
+            runTime = System.currentTimeMillis() - clockStart;
+            TSPTourImprover improver = tester.getTourImprover();
+            double[] traceMillis = improver.getTraceMillis();
+            double[] traceLengths = improver.getTraceLengths();
+            for (int i = 0; i < traceMillis.length; i ++){
+                System.out.printf("  %8.0f ms  %.1f%n", traceMillis[i], traceLengths[i]);
+            }
+            System.out.printf("Improved tour length is: %.1f (%d 2-opt and %d Or-opt moves, %.3f seconds with the candidate lists)%n",
+                    tester.getTourLength(improvedTour), improver.getTwoOptMoves(), improver.getOrOptMoves(), (double)runTime/1000);
+        }
+
+        if (multiStart){
+            //multi-start, not part of the assignment: more threads fit more starts into the same budget
+            int cores = Runtime.getRuntime().availableProcessors();
+            for (int parallelism = 1; parallelism <= cores; parallelism *= 2){
+                MultiStartResult result = tester.runMultiStart(parallelism, Integer.MAX_VALUE, MULTI_START_BUDGET_MILLIS);
+                System.out.println("Multi-start on " + parallelism + " threads: " + result);
+            }
+        }
     }
 }
@@ -0,0 +1,266 @@
+import java.util.Arrays;
+
+/**
+ * Project: Coursera Algorithms by Standford University: Shortest Paths Revisited, NP-Complete Problems and What To Do About Them.
+ * Description: Johnson's algorithm for the all-pairs shortest-path problem, used by APSPFinder on sparse graphs.
+ *
+ *              1. Add a virtual source with a 0-length edge to every vertex and run queue-based Bellman-Ford (SPFA) from it.
+ *                 The resulting distances are the vertex potentials h(v). SPFA stops as soon as the predecessor
+ *                 pointers form a cycle, which can only happen with a negative cycle.
+ *              2. Reweight every edge (u, v) to length + h(u) - h(v), which is never negative,
+ *                 and run Dijkstra's algorithm from every vertex.
+ *              3. Undo the reweighting: d(u, v) = d'(u, v) - h(u) + h(v).
+ *
+ *              The graph is read from the compressed sparse row arrays of a CSRGraph: the out-edges of vertex u are
+ *              targets[offsets[u] .. offsets[u+1]) with lengths in weights at the same positions.
+ *              Vertices are 0-based internally, vertex v of the input maps to index v - 1.
+ *
+ * @author : Zitao He
+ * @date : 2026-10-18 13:40
+ **/
+public class JohnsonAPSP {
+
+    private final int numVertices;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] weights;
+    private long[] potentials;
+    private boolean negativeCycle;
+    private int[] cycle; //witness of the negative cycle, 1-based vertices in edge order
+
+    /**
+     * Constructor of Johnson's algorithm.
+     * @param graph graph to solve, its CSR arrays are used directly
+     */
+    public JohnsonAPSP(CSRGraph graph){
+        this.numVertices = graph.getNumVertices();
+        this.offsets = graph.offsets();
+        this.targets = graph.targets();
+        this.weights = graph.weights();
+    }
+
+    /**
+     * Run SPFA from the virtual source to compute the vertex potentials used for reweighting.
+     * Every numVertices relaxations the predecessor pointers are checked for a cycle. Any such cycle is a
+     * negative cycle, so graphs that have one are rejected after a few passes instead of after numVertices passes.
+     * @return true if potentials were found, false if the graph contains a negative cycle
+     */
+    public boolean computePotentials(){
+        int n = numVertices;
+        potentials = new long[n]; //the virtual source reaches every vertex with length 0
+        int[] parent = new int[n]; //predecessor on the current shortest path, -1 for the virtual source
+        Arrays.fill(parent, -1);
+        boolean[] inQueue = new boolean[n];
+        int[] queue = new int[n]; //ring buffer, a vertex is never in the queue twice
+        int head = 0;
+        int size = n;
+        for (int v = 0; v < n; v ++){
+            queue[v] = v;
+            inQueue[v] = true;
+        }
+        long relaxations = 0;
+        while (size > 0){
+            int u = queue[head];
+            head = head + 1 == n ? 0 : head + 1;
+            size --;
+            inQueue[u] = false;
+            for (int e = offsets[u]; e < offsets[u + 1]; e ++){
+                int v = targets[e];
+                long candidate = potentials[u] + weights[e];
+                if (candidate < potentials[v]){
+                    potentials[v] = candidate;
+                    parent[v] = u;
+                    if (++ relaxations % n == 0){
+                        cycle = findParentCycle(parent);
+                        if (cycle != null){
+                            negativeCycle = true;
+                            return false;
+                        }
+                    }
+                    if (!inQueue[v]){
+                        int tail = head + size;
+                        queue[tail >= n ? tail - n : tail] = v;
+                        size ++;
+                        inQueue[v] = true;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Look for a cycle in the predecessor pointers. Each vertex is walked at most once,
+     * so the check is O(numVertices).
+     * @return 1-based vertices of the cycle in edge order, or null if there is no cycle
+     */
+    private int[] findParentCycle(int[] parent){
+        int n = numVertices;
+        int[] walkID = new int[n]; //0: not walked yet, otherwise the start vertex + 1 of the walk that visited it
+        for (int start = 0; start < n; start ++){
+            int v = start;
+            while (v != -1 && walkID[v] == 0){
+                walkID[v] = start + 1;
+                v = parent[v];
+            }
+            if (v != -1 && walkID[v] == start + 1){
+                //v is on the cycle, walking the predecessors gives the cycle backwards
+                int length = 1;
+                for (int u = parent[v]; u != v; u = parent[u]){
+                    length ++;
+                }
+                int[] vertices = new int[length];
+                int u = v;
+                for (int i = length - 1; i >= 0; i --){
+                    vertices[i] = u + 1;
+                    u = parent[u];
+                }
+                return vertices;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Run Dijkstra's algorithm from every vertex on the reweighted graph. computePotentials() must have succeeded.
+     * @param distances flat row-major numVertices x numVertices matrix to fill
+     * @param unreachable value stored for pairs that have no path
+     */
+    public void run(int[] distances, int unreachable){
+        run(distances, unreachable, null);
+    }
+
+    /**
+     * Run Dijkstra's algorithm from every vertex on the reweighted graph and record the first hop of every
+     * shortest path. Paths are compared by length first and by number of edges second, which keeps the next hops
+     * of different sources consistent when the graph has zero-length cycles (see NextHopMatrix).
+     * computePotentials() must have succeeded.
+     * @param distances flat row-major numVertices x numVertices matrix to fill
+     * @param unreachable value stored for pairs that have no path
+     * @param nextHops next-hop matrix to fill, or null to skip path tracking
+     */
+    public void run(int[] distances, int unreachable, NextHopMatrix nextHops){
+        if (potentials == null || negativeCycle){
+            throw new IllegalStateException("Error: potentials are not available, call computePotentials() first.");
+        }
+        int n = numVertices;
+        long[] dist = new long[n];
+        int[] heap = new int[n];
+        int[] heapPosition = new int[n]; //-1: not reached yet, -2: settled
+        int[] firstHop = new int[n]; //first vertex after the source on the current shortest path
+        int[] edgeCount = new int[n]; //number of edges of the current shortest path
+        for (int source = 0; source < n; source ++){
+            Arrays.fill(dist, Long.MAX_VALUE);
+            Arrays.fill(heapPosition, -1);
+            dist[source] = 0;
+            firstHop[source] = source;
+            edgeCount[source] = 0;
+            heap[0] = source;
+            heapPosition[source] = 0;
+            int heapSize = 1;
+            int row = source * n;
+            Arrays.fill(distances, row, row + n, unreachable);
+            while (heapSize > 0){
+                int u = heap[0];
+                heapSize --;
+                heapPosition[u] = -2;
+                if (heapSize > 0){
+                    heap[0] = heap[heapSize];
+                    heapPosition[heap[0]] = 0;
+                    siftDown(heap, heapPosition, dist, edgeCount, heapSize, 0);
+                }
+                distances[row + u] = (int) (dist[u] - potentials[source] + potentials[u]);
+                if (nextHops != null){
+                    nextHops.set(row + u, firstHop[u], edgeCount[u]);
+                }
+                long hu = potentials[u];
+                for (int e = offsets[u]; e < offsets[u + 1]; e ++){
+                    int v = targets[e];
+                    if (heapPosition[v] == -2){
+                        continue;
+                    }
+                    long candidate = dist[u] + weights[e] + hu - potentials[v];
+                    if (candidate < dist[v] || (candidate == dist[v] && edgeCount[u] + 1 < edgeCount[v])){
+                        dist[v] = candidate;
+                        edgeCount[v] = edgeCount[u] + 1;
+                        firstHop[v] = u == source ? v : firstHop[u];
+                        if (heapPosition[v] == -1){
+                            heap[heapSize] = v;
+                            heapPosition[v] = heapSize;
+                            heapSize ++;
+                        }
+                        siftUp(heap, heapPosition, dist, edgeCount, heapPosition[v]);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Heap order: shorter path first, fewer edges on equal length.
+     */
+    private static boolean isBefore(int vertex, int other, long[] dist, int[] edgeCount){
+        return dist[vertex] < dist[other] || (dist[vertex] == dist[other] && edgeCount[vertex] < edgeCount[other]);
+    }
+
+    private static void siftUp(int[] heap, int[] heapPosition, long[] dist, int[] edgeCount, int index){
+        int vertex = heap[index];
+        while (index > 0){
+            int parent = (index - 1) >>> 1;
+            if (!isBefore(vertex, heap[parent], dist, edgeCount)){
+                break;
+            }
+            heap[index] = heap[parent];
+            heapPosition[heap[index]] = index;
+            index = parent;
+        }
+        heap[index] = vertex;
+        heapPosition[vertex] = index;
+    }
+
+    private static void siftDown(int[] heap, int[] heapPosition, long[] dist, int[] edgeCount, int heapSize, int index){
+        int vertex = heap[index];
+        while (true){
+            int child = 2 * index + 1;
+            if (child >= heapSize){
+                break;
+            }
+            if (child + 1 < heapSize && isBefore(heap[child + 1], heap[child], dist, edgeCount)){
+                child ++;
+            }
+            if (!isBefore(heap[child], vertex, dist, edgeCount)){
+                break;
+            }
+            heap[index] = heap[child];
+            heapPosition[heap[index]] = index;
+            index = child;
+        }
+        heap[index] = vertex;
+        heapPosition[vertex] = index;
+    }
+
+    /**
+     * Check if computePotentials() found a negative cycle
+     * @return true if the graph contains a negative cycle
+     */
+    public boolean hasNegativeCycle(){
+        return negativeCycle;
+    }
+
+    /**
+     * Get the negative cycle found by computePotentials().
+     * @return vertices v1, v2, ..., vk such that v1->v2, ..., vk->v1 is a negative cycle, or null if there is none
+     */
+    public int[] getNegativeCycle(){
+        return cycle;
+    }
+
+    /**
+     * Get the potential h(v) computed by computePotentials(). Edge (u, v) reweighted to length + h(u) - h(v) is never negative.
+     * @param vertex vertex, numbered from 1 to numVertices
+     * @return potential of vertex
+     */
+    public long getPotential(int vertex){
+        return potentials[vertex - 1];
+    }
+}
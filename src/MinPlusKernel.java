@@ -0,0 +1,71 @@
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Project: Coursera Algorithms by Standford University: Shortest Paths Revisited, NP-Complete Problems and What To Do About Them.
+ * Description: Min-plus row operation row[j] = min(row[j], dik + pivotRow[j]), the inner loop of BlockedFloydWarshall.
+ *              ScalarMinPlusKernel is always available. VectorMinPlusKernel uses the incubating Vector API of JDK 16+,
+ *              so it lives in src-vector and is compiled and loaded separately:
+ *
+ *                  javac --release 17 --add-modules jdk.incubator.vector -cp out -d out src-vector/VectorMinPlusKernel.java
+ *                  java --add-modules jdk.incubator.vector -cp out ...
+ *
+ *              load() looks it up by name and checks it against the scalar kernel, so the rest of the project still
+ *              builds and runs on the JDK 14 language level and falls back to the scalar kernel when the class or the
+ *              module is missing.
+ *
+ * @author : Zitao He
+ * @date : 2026-10-19 01:20
+ **/
+public interface MinPlusKernel {
+
+    /**
+     * Relax a row through one pivot: row[j] = min(row[j], dik + pivotRow[j]) for j below width.
+     * Lengths are at most BlockedFloydWarshall.INFINITY and dik is finite, so the sum can't overflow.
+     * @param row distances from i, updated in place
+     * @param pivotRow distances from the pivot k
+     * @param dik distance from i to the pivot
+     * @param width number of entries to relax
+     */
+    void relaxRow(int[] row, int[] pivotRow, int dik, int width);
+
+    /**
+     * Get a short description of the kernel, like "scalar" or "vector (256 bit)".
+     * @return name of the kernel
+     */
+    String getName();
+
+    /**
+     * Get the fastest kernel that is available.
+     * @return VectorMinPlusKernel if it can be loaded and gives the same results as the scalar kernel, else the scalar kernel
+     */
+    static MinPlusKernel load(){
+        MinPlusKernel scalar = new ScalarMinPlusKernel();
+        try {
+            MinPlusKernel vector = (MinPlusKernel) Class.forName("VectorMinPlusKernel").getDeclaredConstructor().newInstance();
+            return agrees(vector, scalar) ? vector : scalar;
+        } catch (ReflectiveOperationException | LinkageError | ClassCastException e) {
+            return scalar; //not compiled, or the jdk.incubator.vector module is not added
+        }
+    }
+
+    private static boolean agrees(MinPlusKernel kernel, MinPlusKernel reference){
+        Random rand = new Random(1);
+        for (int width = 0; width < 70; width ++){
+            int[] row = new int[width];
+            int[] pivotRow = new int[width];
+            for (int j = 0; j < width; j ++){
+                row[j] = rand.nextInt(4) == 0 ? BlockedFloydWarshall.INFINITY : rand.nextInt(1000);
+                pivotRow[j] = rand.nextInt(4) == 0 ? BlockedFloydWarshall.INFINITY : rand.nextInt(1000);
+            }
+            int[] expected = row.clone();
+            int dik = rand.nextInt(1000);
+            reference.relaxRow(expected, pivotRow, dik, width);
+            kernel.relaxRow(row, pivotRow, dik, width);
+            if (!Arrays.equals(row, expected)){
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,150 @@
+import java.util.Arrays;
+
+/**
+ * Project: Coursera Algorithms by Standford University: Shortest Paths Revisited, NP-Complete Problems and What To Do About Them.
+ * Description: Compact next-hop matrix for path reconstruction after an all pairs shortest path run.
+ *              Entry (i, j) holds the 0-based vertex that follows i on a shortest path from i to j,
+ *              i itself on the diagonal and NO_PATH if j is not reachable from i.
+ *              Next to it the matrix keeps the number of edges of that path (numVertices if there is no path).
+ *              Among equally long paths the solvers keep one with the fewest edges, so following next hops always
+ *              reduces the edge count by one. Without that tie-break, zero-length cycles (g3.txt has some)
+ *              let next hops of different pairs point in a circle.
+ *              Both matrices are stored flat and row-major in a short[] when vertex indices fit
+ *              (fewer than 32768 vertices), which halves their size, and in an int[] otherwise.
+ *
+ * @author : Zitao He
+ * @date : 2026-10-18 16:45
+ **/
+public class NextHopMatrix {
+
+    public static final int NO_PATH = -1;
+    private static final int MAX_SHORT_VERTICES = Short.MAX_VALUE + 1;
+
+    private final int numVertices;
+    //short[] layout used when numVertices < 32768, int[] layout otherwise. The unused pair is null.
+    private final short[] shortHops;
+    private final short[] shortEdgeCounts;
+    private final int[] intHops;
+    private final int[] intEdgeCounts;
+
+    /**
+     * Constructor of an empty next-hop matrix (every entry is NO_PATH).
+     * @param numVertices number of vertices
+     */
+    public NextHopMatrix(int numVertices){
+        this.numVertices = numVertices;
+        long size = (long) numVertices * numVertices;
+        if (size > Integer.MAX_VALUE){
+            throw new IllegalArgumentException("Error: too many vertices for a next-hop matrix: " + numVertices);
+        }
+        if (numVertices < MAX_SHORT_VERTICES){
+            shortHops = new short[(int) size];
+            shortEdgeCounts = new short[(int) size];
+            intHops = null;
+            intEdgeCounts = null;
+            Arrays.fill(shortHops, (short) NO_PATH);
+            Arrays.fill(shortEdgeCounts, (short) numVertices);
+        }
+        else {
+            shortHops = null;
+            shortEdgeCounts = null;
+            intHops = new int[(int) size];
+            intEdgeCounts = new int[(int) size];
+            Arrays.fill(intHops, NO_PATH);
+            Arrays.fill(intEdgeCounts, numVertices);
+        }
+    }
+
+    public int getNumVertices(){
+        return numVertices;
+    }
+
+    /**
+     * Get the next hop stored at a flat index.
+     * @param index i * numVertices + j for the pair (i, j), 0-based
+     * @return 0-based next vertex, or NO_PATH
+     */
+    public int get(int index){
+        return shortHops != null ? shortHops[index] : intHops[index];
+    }
+
+    /**
+     * Get the number of edges of the path stored at a flat index.
+     * @param index i * numVertices + j for the pair (i, j), 0-based
+     * @return number of edges, 0 on the diagonal and numVertices if there is no path
+     */
+    public int getEdgeCount(int index){
+        return shortEdgeCounts != null ? shortEdgeCounts[index] : intEdgeCounts[index];
+    }
+
+    /**
+     * Set the path stored at a flat index.
+     * @param index i * numVertices + j for the pair (i, j), 0-based
+     * @param nextVertex 0-based next vertex, or NO_PATH
+     * @param edgeCount number of edges of the path
+     */
+    public void set(int index, int nextVertex, int edgeCount){
+        if (shortHops != null){
+            shortHops[index] = (short) nextVertex;
+            shortEdgeCounts[index] = (short) edgeCount;
+        }
+        else {
+            intHops[index] = nextVertex;
+            intEdgeCounts[index] = edgeCount;
+        }
+    }
+
+    /**
+     * Copy part of a row into int buffers, used by the Floyd-Warshall kernels.
+     */
+    void copyOut(int index, int[] hopTarget, int[] edgeCountTarget, int length){
+        if (shortHops != null){
+            for (int j = 0; j < length; j ++){
+                hopTarget[j] = shortHops[index + j];
+                edgeCountTarget[j] = shortEdgeCounts[index + j];
+            }
+        }
+        else {
+            System.arraycopy(intHops, index, hopTarget, 0, length);
+            System.arraycopy(intEdgeCounts, index, edgeCountTarget, 0, length);
+        }
+    }
+
+    /**
+     * Copy part of the edge counts of a row into an int buffer, used by the Floyd-Warshall kernels.
+     */
+    void copyEdgeCountsOut(int index, int[] edgeCountTarget, int length){
+        if (shortEdgeCounts != null){
+            for (int j = 0; j < length; j ++){
+                edgeCountTarget[j] = shortEdgeCounts[index + j];
+            }
+        }
+        else {
+            System.arraycopy(intEdgeCounts, index, edgeCountTarget, 0, length);
+        }
+    }
+
+    /**
+     * Copy int buffers back into part of a row, used by the Floyd-Warshall kernels.
+     */
+    void copyIn(int[] hopSource, int[] edgeCountSource, int index, int length){
+        if (shortHops != null){
+            for (int j = 0; j < length; j ++){
+                shortHops[index + j] = (short) hopSource[j];
+                shortEdgeCounts[index + j] = (short) edgeCountSource[j];
+            }
+        }
+        else {
+            System.arraycopy(hopSource, 0, intHops, index, length);
+            System.arraycopy(edgeCountSource, 0, intEdgeCounts, index, length);
+        }
+    }
+
+    /**
+     * Get the heap size of the matrix payload.
+     * @return 4 * numVertices^2 bytes for the short[] layout, 8 * numVertices^2 bytes for the int[] layout
+     */
+    public long getMemoryBytes(){
+        return shortHops != null ? 4L * shortHops.length : 8L * intHops.length;
+    }
+}
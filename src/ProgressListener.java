@@ -0,0 +1,18 @@
+/**
+ * Project: Coursera Algorithms by Standford University: Shortest Paths Revisited, NP-Complete Problems and What To Do About Them.
+ * Description: Callback of SolverMetrics. It is called at most once per report interval while a solver makes progress,
+ *              and once at the end of every phase. Parallel solvers call it from their worker threads, one call at a time
+ *              is not guaranteed, so an implementation must be thread-safe and should return quickly.
+ *
+ * @author : Zitao He
+ * @date : 2026-10-19 01:50
+ **/
+@FunctionalInterface
+public interface ProgressListener {
+
+    /**
+     * Report the state of a running solver.
+     * @param metrics counters and phase times of the solver, read them with SolverMetrics.get() and getPhaseMillis()
+     */
+    void onProgress(SolverMetrics metrics);
+}
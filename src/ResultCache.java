@@ -0,0 +1,129 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Project: Coursera Algorithms by Standford University: Shortest Paths Revisited, NP-Complete Problems and What To Do About Them.
+ * Description: Least recently used cache of solver results for SolverService, bounded by the memory of its values.
+ *              Keys are content hashes of the instances, values the encoded results. A LinkedHashMap in access order
+ *              keeps the entries from least to most recently used, so eviction removes from the head until the
+ *              values fit into the budget again. A value larger than the whole budget is not cached at all.
+ *              All methods are synchronized; the solves run outside, so the lock is only held for map operations.
+ *
+ * @author : Zitao He
+ * @date : 2026-10-19 03:40
+ **/
+public class ResultCache {
+
+    private static final int ENTRY_OVERHEAD_BYTES = 160; //map entry, key string and value string headers
+
+    private final long maxBytes;
+    private final LinkedHashMap<String, String> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Constructor of the cache.
+     * @param maxBytes memory budget of the cached entries
+     */
+    public ResultCache(long maxBytes){
+        if (maxBytes < 0){
+            throw new IllegalArgumentException("Error: cache size must not be negative.");
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Estimated memory of an entry: 2 bytes per char of key and value plus a fixed overhead.
+     */
+    private static long sizeOf(String key, String value){
+        return 2L * (key.length() + value.length()) + ENTRY_OVERHEAD_BYTES;
+    }
+
+    /**
+     * Look up a result and mark it as most recently used.
+     * @param key content hash of the instance
+     * @return the result, or null if it isn't cached
+     */
+    public synchronized String get(String key){
+        String value = entries.get(key);
+        if (value == null){
+            misses ++;
+        }
+        else {
+            hits ++;
+        }
+        return value;
+    }
+
+    /**
+     * Look up a result without counting a hit or a miss.
+     * @param key content hash of the instance
+     * @return the result, or null if it isn't cached
+     */
+    public synchronized String peek(String key){
+        return entries.get(key);
+    }
+
+    /**
+     * Cache a result, evicting the least recently used entries until everything fits into the budget.
+     * @param key content hash of the instance
+     * @param value result to cache
+     */
+    public synchronized void put(String key, String value){
+        long size = sizeOf(key, value);
+        if (size > maxBytes){
+            return;
+        }
+        String previous = entries.put(key, value);
+        if (previous != null){
+            bytes -= sizeOf(key, previous);
+        }
+        bytes += size;
+        Iterator<Map.Entry<String, String>> eldest = entries.entrySet().iterator();
+        while (bytes > maxBytes){
+            Map.Entry<String, String> entry = eldest.next();
+            bytes -= sizeOf(entry.getKey(), entry.getValue());
+            eldest.remove();
+            evictions ++;
+        }
+    }
+
+    /**
+     * Remove all entries. The statistics are kept.
+     */
+    public synchronized void clear(){
+        entries.clear();
+        bytes = 0;
+    }
+
+    public synchronized int size(){
+        return entries.size();
+    }
+
+    public synchronized long getBytes(){
+        return bytes;
+    }
+
+    public synchronized long getHits(){
+        return hits;
+    }
+
+    public synchronized long getMisses(){
+        return misses;
+    }
+
+    public synchronized long getEvictions(){
+        return evictions;
+    }
+
+    @Override
+    public synchronized String toString() {
+        long lookups = hits + misses;
+        return String.format("%d entries, %.1f of %.1f MB, %d hits, %d misses (%.1f%% hit rate), %d evictions",
+                entries.size(), bytes / 1048576.0, maxBytes / 1048576.0, hits, misses,
+                lookups > 0 ? 100.0 * hits / lookups : 0.0, evictions);
+    }
+}
@@ -0,0 +1,26 @@
+/**
+ * Project: Coursera Algorithms by Standford University: Shortest Paths Revisited, NP-Complete Problems and What To Do About Them.
+ * Description: Plain Java min-plus kernel (see MinPlusKernel), the default of BlockedFloydWarshall.
+ *
+ * @author : Zitao He
+ * @date : 2026-10-19 01:20
+ **/
+public class ScalarMinPlusKernel implements MinPlusKernel {
+
+    /**
+     * The min is written branch-free because C2 vectorizes this form but not Math.min on int arrays.
+     */
+    @Override
+    public void relaxRow(int[] row, int[] pivotRow, int dik, int width){
+        for (int j = 0; j < width; j ++){
+            int current = row[j];
+            int diff = dik + pivotRow[j] - current;
+            row[j] = current + (diff & (diff >> 31));
+        }
+    }
+
+    @Override
+    public String getName(){
+        return "scalar";
+    }
+}
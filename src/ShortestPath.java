@@ -0,0 +1,39 @@
+import java.util.Arrays;
+
+/**
+ * Project: Coursera Algorithms by Standford University: Shortest Paths Revisited, NP-Complete Problems and What To Do About Them.
+ * Description: One shortest path returned by APSPFinder.getPath(): its length and its vertices from start to end.
+ *
+ * @author : Zitao He
+ * @date : 2026-10-18 16:45
+ **/
+public class ShortestPath {
+
+    private final long distance;
+    private final int[] vertices;
+
+    public ShortestPath(long distance, int[] vertices){
+        this.distance = distance;
+        this.vertices = vertices;
+    }
+
+    public long getDistance() {
+        return distance;
+    }
+
+    /**
+     * Get the vertices of the path.
+     * @return vertices from start to end (both included), numbered from 1
+     */
+    public int[] getVertices() {
+        return vertices.clone();
+    }
+
+    @Override
+    public String toString() {
+        return "ShortestPath{" +
+                "distance=" + distance +
+                ", vertices=" + Arrays.toString(vertices) +
+                '}';
+    }
+}
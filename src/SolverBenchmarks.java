@@ -0,0 +1,274 @@
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Project: Coursera Algorithms by Standford University: Shortest Paths Revisited, NP-Complete Problems and What To Do About Them.
+ * Description: Benchmark suite of all finders, run with BenchmarkHarness. It covers
+ *
+ *              parse:  the file constructors of APSPFinder, HeuristicTSPMinCostFinder and TwoSATFinder
+ *              APSP:   APSPFinder.runAPSP() on g1.txt to g3.txt and on synthetic graphs of growing size
+ *              TSP:    HeuristicTSPMinCostFinder.runHeuristicTSP(), getTSPMinDist() and runImprovedTour() on nn.txt and on
+ *                      synthetic instances
+ *              2SAT:   TwoSATFinder.runTwoSatSearch() on the 2sat-test files and on synthetic satisfiable instances,
+ *                      TwoSATFinder.runSCCSolver() on 2sat1.txt, 2sat2.txt and the synthetic instances
+ *              metrics: Floyd-Warshall, the nearest neighbor tour and the 2SAT local search without SolverMetrics and
+ *                      with SolverMetrics and a listener, to check that the instrumentation costs nothing when it's off
+ *                      and little when it's on
+ *
+ *              Synthetic inputs are written in the format of the data files into a temporary directory, always with
+ *              the same seed, so that every run measures the same inputs. The finders that don't take an edge list
+ *              (TSP, 2SAT) can only be built from files.
+ *
+ *              Usage: java SolverBenchmarks [-f regex] [-wi warmupIterations] [-i iterations] [-t iterationMillis]
+ *                                           [-csv file] [-label text]
+ *              -f runs only benchmarks whose "name params" matches, e.g. -f "runAPSP.*g3" or -f TSP.
+ *              -csv appends the results to a CSV file, labelled with -label (a version or commit), to track regressions.
+ *
+ * @author : Zitao He
+ * @date : 2026-10-18 21:10
+ **/
+public class SolverBenchmarks {
+
+    private static final int[] APSP_SIZES = {250, 500, 1000, 2000};
+    private static final int APSP_EDGES_PER_VERTEX = 50;
+    private static final int[] TSP_SIZES = {1000, 10000, 50000};
+    private static final int[] TWO_SAT_SIZES = {1000, 5000, 20000};
+    private static final long SEED = 42;
+
+    public static void main(String[] args) throws IOException {
+        String filter = "";
+        int warmup = 3;
+        int iterations = 5;
+        long iterationMillis = 300;
+        String csv = null;
+        String label = "local";
+        for (int a = 0; a < args.length; a ++){
+            if (a + 1 == args.length){
+                throw new IllegalArgumentException("Error: option " + args[a] + " needs a value.");
+            }
+            switch (args[a]){
+                case "-f": filter = args[++ a]; break;
+                case "-wi": warmup = Integer.parseInt(args[++ a]); break;
+                case "-i": iterations = Integer.parseInt(args[++ a]); break;
+                case "-t": iterationMillis = Long.parseLong(args[++ a]); break;
+                case "-csv": csv = args[++ a]; break;
+                case "-label": label = args[++ a]; break;
+                default: throw new IllegalArgumentException("Error: unknown option " + args[a]);
+            }
+        }
+        BenchmarkHarness harness = new BenchmarkHarness(warmup, iterations, iterationMillis, filter);
+        File tempDir = Files.createTempDirectory("solver-benchmarks").toFile();
+        try {
+            parseBenchmarks(harness);
+            apspBenchmarks(harness);
+            tspBenchmarks(harness, tempDir);
+            twoSatBenchmarks(harness, tempDir);
+            metricsBenchmarks(harness, tempDir);
+        } finally {
+            for (File file : tempDir.listFiles()){
+                file.delete();
+            }
+            tempDir.delete();
+        }
+        if (csv != null){
+            harness.appendCsv(csv, label);
+        }
+    }
+
+    private static void parseBenchmarks(BenchmarkHarness harness){
+        for (String file : new String[]{"g1.txt", "g2.txt", "g3.txt"}){
+            harness.run("parse.APSPFinder", "file=" + file, () -> new APSPFinder("data/" + file));
+        }
+        harness.run("parse.HeuristicTSPMinCostFinder", "file=nn.txt", () -> new HeuristicTSPMinCostFinder("data/nn.txt"));
+        for (String file : new String[]{"2sat1.txt", "2sat2.txt"}){
+            harness.run("parse.TwoSATFinder", "file=" + file, () -> new TwoSATFinder("data/" + file));
+        }
+    }
+
+    private static void apspBenchmarks(BenchmarkHarness harness) throws FileNotFoundException {
+        for (String file : new String[]{"g1.txt", "g2.txt", "g3.txt"}){
+            if (harness.isSelected("APSPFinder.runAPSP", "file=" + file)){
+                APSPFinder finder = new APSPFinder("data/" + file);
+                harness.run("APSPFinder.runAPSP", "file=" + file, () -> {
+                    finder.runAPSP();
+                    return finder.getResult();
+                });
+            }
+        }
+        for (int n : APSP_SIZES){
+            String params = "n=" + n + ",m=" + n * APSP_EDGES_PER_VERTEX;
+            if (harness.isSelected("APSPFinder.runAPSP", params)){
+                APSPFinder finder = new APSPFinder(n, APSPBenchmark.syntheticGraph(n, n * APSP_EDGES_PER_VERTEX, SEED));
+                harness.run("APSPFinder.runAPSP", params, () -> {
+                    finder.runAPSP();
+                    return finder.getResult();
+                });
+            }
+        }
+    }
+
+    private static void tspBenchmarks(BenchmarkHarness harness, File tempDir) throws FileNotFoundException {
+        String[] files = new String[TSP_SIZES.length + 1];
+        String[] params = new String[TSP_SIZES.length + 1];
+        files[0] = "data/nn.txt";
+        params[0] = "file=nn.txt";
+        for (int s = 0; s < TSP_SIZES.length; s ++){
+            params[s + 1] = "n=" + TSP_SIZES[s];
+            files[s + 1] = new File(tempDir, "tsp-" + TSP_SIZES[s] + ".txt").getPath();
+            writeCities(files[s + 1], TSP_SIZES[s], SEED);
+        }
+        for (int f = 0; f < files.length; f ++){
+            if (harness.isSelected("HeuristicTSPMinCostFinder.runHeuristicTSP", params[f])
+                    || harness.isSelected("HeuristicTSPMinCostFinder.getTSPMinDist", params[f])){
+                HeuristicTSPMinCostFinder finder = new HeuristicTSPMinCostFinder(files[f]);
+                harness.run("HeuristicTSPMinCostFinder.runHeuristicTSP", params[f], finder::runHeuristicTSP);
+                harness.run("HeuristicTSPMinCostFinder.getTSPMinDist", params[f], finder::getTSPMinDist);
+            }
+            if (harness.isSelected("HeuristicTSPMinCostFinder.runImprovedTour", params[f])){
+                HeuristicTSPMinCostFinder finder = new HeuristicTSPMinCostFinder(files[f]);
+                harness.run("HeuristicTSPMinCostFinder.runImprovedTour", params[f], () -> finder.runImprovedTour(0));
+            }
+        }
+    }
+
+    /**
+     * runTwoSatSearch() keeps the preprocessed clauses in its finder, so every call gets a new finder
+     * (the times include parsing, which parse.TwoSATFinder measures alone) and System.out is silenced meanwhile.
+     */
+    private static void twoSatBenchmarks(BenchmarkHarness harness, File tempDir) throws FileNotFoundException {
+        for (String file : new String[]{"2sat1.txt", "2sat2.txt"}){
+            if (harness.isSelected("TwoSATFinder.runSCCSolver", "file=" + file)){
+                TwoSATFinder finder = new TwoSATFinder("data/" + file);
+                harness.run("TwoSATFinder.runSCCSolver", "file=" + file, finder::runSCCSolver);
+            }
+        }
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            for (int t = 1; t <= 4; t ++){
+                String file = "data/2sat-test" + t + ".txt";
+                harness.run("TwoSATFinder.runTwoSatSearch", "file=2sat-test" + t + ".txt",
+                        () -> new TwoSATFinder(file).runTwoSatSearch());
+            }
+            for (int n : TWO_SAT_SIZES){
+                if (harness.isSelected("TwoSATFinder.runTwoSatSearch", "n=" + n)
+                        || harness.isSelected("TwoSATFinder.runSCCSolver", "n=" + n)){
+                    String file = new File(tempDir, "2sat-" + n + ".txt").getPath();
+                    writeSatisfiableClauses(file, n, SEED);
+                    harness.run("TwoSATFinder.runTwoSatSearch", "n=" + n, () -> new TwoSATFinder(file).runTwoSatSearch());
+                    TwoSATFinder finder = new TwoSATFinder(file);
+                    harness.run("TwoSATFinder.runSCCSolver", "n=" + n, finder::runSCCSolver);
+                }
+            }
+        } finally {
+            System.setOut(console);
+        }
+    }
+
+    /**
+     * Pairs of the same run with metrics=off (no SolverMetrics, the default) and metrics=on (counters, JFR events and
+     * a listener that is called at the default report interval). The 2SAT local search runs on the clauses as they are,
+     * because TwoSATFinder would preprocess most of them away.
+     */
+    private static void metricsBenchmarks(BenchmarkHarness harness, File tempDir) throws FileNotFoundException {
+        ProgressListener listener = metrics -> { };
+        for (boolean on : new boolean[]{false, true}){
+            String suffix = on ? ",metrics=on" : ",metrics=off";
+            int n = 1000;
+            String params = "n=" + n + ",m=" + n * APSP_EDGES_PER_VERTEX + suffix;
+            if (harness.isSelected("metrics.APSPFinder.runAPSP", params)){
+                APSPFinder finder = new APSPFinder(n, APSPBenchmark.syntheticGraph(n, n * APSP_EDGES_PER_VERTEX, SEED));
+                finder.setBackend(APSPFinder.Backend.FLOYD_WARSHALL);
+                finder.setMetrics(on ? new SolverMetrics("APSP", listener, SolverMetrics.DEFAULT_REPORT_INTERVAL_MILLIS) : null);
+                harness.run("metrics.APSPFinder.runAPSP", params, () -> {
+                    finder.runAPSP();
+                    return finder.getResult();
+                });
+            }
+            int numCities = TSP_SIZES[TSP_SIZES.length - 1];
+            params = "n=" + numCities + suffix;
+            if (harness.isSelected("metrics.HeuristicTSPMinCostFinder.runHeuristicTour", params)){
+                String file = new File(tempDir, "tsp-" + numCities + ".txt").getPath();
+                writeCities(file, numCities, SEED);
+                HeuristicTSPMinCostFinder finder = new HeuristicTSPMinCostFinder(file);
+                finder.setMetrics(on ? new SolverMetrics("TSP", listener, SolverMetrics.DEFAULT_REPORT_INTERVAL_MILLIS) : null);
+                harness.run("metrics.HeuristicTSPMinCostFinder.runHeuristicTour", params, finder::runHeuristicTour);
+            }
+            int numVariables = TWO_SAT_SIZES[TWO_SAT_SIZES.length - 1];
+            params = "n=" + numVariables + suffix;
+            if (harness.isSelected("metrics.TwoSATLocalSearch.search", params)){
+                int[] literals = satisfiableClauseLiterals(numVariables, SEED);
+                SolverMetrics metrics = on ? new SolverMetrics("2SAT", listener, SolverMetrics.DEFAULT_REPORT_INTERVAL_MILLIS) : null;
+                harness.run("metrics.TwoSATLocalSearch.search", params, () -> {
+                    TwoSATLocalSearch search = new TwoSATLocalSearch(numVariables, literals, numVariables, SEED);
+                    search.setMetrics(metrics);
+                    return search.search(1, 2L * numVariables * numVariables);
+                });
+            }
+        }
+    }
+
+    /**
+     * Write a TSP instance in the format of nn.txt (index x y). Cities are sorted by x like in nn.txt,
+     * so that the inputs stay comparable with runs before HeuristicTSPMinCostFinder used CityKDTree.
+     */
+    static void writeCities(String fileName, int numCities, long seed) throws FileNotFoundException {
+        Random rand = new Random(seed);
+        double[] xs = new double[numCities];
+        for (int i = 0; i < numCities; i ++){
+            xs[i] = Math.round(rand.nextDouble() * 1e9) / 1e4;
+        }
+        Arrays.sort(xs);
+        try (PrintWriter writer = new PrintWriter(fileName)) {
+            writer.println(numCities);
+            for (int i = 0; i < numCities; i ++){
+                writer.println((i + 1) + " " + xs[i] + " " + Math.round(rand.nextDouble() * 1e9) / 1e4);
+            }
+        }
+    }
+
+    /**
+     * Write a 2SAT instance in the format of 2sat1.txt with numVariables variables and as many clauses,
+     * see satisfiableClauseLiterals().
+     */
+    static void writeSatisfiableClauses(String fileName, int numVariables, long seed) throws FileNotFoundException {
+        int[] literals = satisfiableClauseLiterals(numVariables, seed);
+        try (PrintWriter writer = new PrintWriter(fileName)) {
+            writer.println(numVariables);
+            for (int c = 0; c < numVariables; c ++){
+                writer.println(literals[2 * c] + " " + literals[2 * c + 1]);
+            }
+        }
+    }
+
+    /**
+     * Random clauses over numVariables variables, as many as variables. A hidden random assignment satisfies
+     * at least one literal of every clause, so the instance is satisfiable.
+     * @return clause c is (literals[2c] OR literals[2c + 1])
+     */
+    static int[] satisfiableClauseLiterals(int numVariables, long seed){
+        Random rand = new Random(seed);
+        boolean[] hidden = new boolean[numVariables + 1];
+        for (int v = 1; v <= numVariables; v ++){
+            hidden[v] = rand.nextBoolean();
+        }
+        int[] literals = new int[2 * numVariables];
+        for (int c = 0; c < numVariables; c ++){
+            int first = rand.nextInt(numVariables) + 1;
+            int second = rand.nextInt(numVariables) + 1;
+            int firstLiteral = hidden[first] ? first : -first; //true under the hidden assignment
+            int secondLiteral = rand.nextBoolean() ? second : -second;
+            boolean swap = !rand.nextBoolean();
+            literals[2 * c] = swap ? secondLiteral : firstLiteral;
+            literals[2 * c + 1] = swap ? firstLiteral : secondLiteral;
+        }
+        return literals;
+    }
+}
@@ -0,0 +1,66 @@
+/**
+ * Project: Coursera Algorithms by Standford University: Shortest Paths Revisited, NP-Complete Problems and What To Do About Them.
+ * Description: Recorder of the phase and progress reports of SolverMetrics, besides its ProgressListener.
+ *              JfrSolverEvents records them as JFR events. Subclasses of jdk.jfr.Event don't compile with
+ *              javac --release 14, so it lives in src-jfr and is compiled and loaded separately, like VectorMinPlusKernel:
+ *
+ *                  javac --release 17 -cp out -d out src-jfr/JfrSolverEvents.java
+ *
+ *              load() looks it up by name, so the rest of the project builds on the JDK 14 language level and the
+ *              metrics work without events (NONE) when the class or the jdk.jfr module is missing.
+ *
+ * @author : Zitao He
+ * @date : 2026-10-19 01:50
+ **/
+public interface SolverEvents {
+
+    /**
+     * Recorder that records nothing.
+     */
+    SolverEvents NONE = new SolverEvents() {
+        @Override
+        public Object beginPhase(){
+            return null;
+        }
+
+        @Override
+        public void endPhase(Object phaseEvent, String solver, SolverMetrics.Phase phase){
+        }
+
+        @Override
+        public void progress(SolverMetrics metrics){
+        }
+    };
+
+    /**
+     * Start the event of a phase.
+     * @return event to pass to endPhase(), null if phases are not recorded
+     */
+    Object beginPhase();
+
+    /**
+     * End and record the event of a phase.
+     * @param phaseEvent the result of beginPhase()
+     * @param solver name of the solver run
+     * @param phase phase that finished
+     */
+    void endPhase(Object phaseEvent, String solver, SolverMetrics.Phase phase);
+
+    /**
+     * Record the counters of a progress report.
+     * @param metrics metrics of the solver run
+     */
+    void progress(SolverMetrics metrics);
+
+    /**
+     * Get the JFR recorder if it is available.
+     * @return JfrSolverEvents if it can be loaded, else NONE
+     */
+    static SolverEvents load(){
+        try {
+            return (SolverEvents) Class.forName("JfrSolverEvents").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError | ClassCastException e) {
+            return NONE; //not compiled, or the jdk.jfr module is missing
+        }
+    }
+}
@@ -0,0 +1,188 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Project: Coursera Algorithms by Standford University: Shortest Paths Revisited, NP-Complete Problems and What To Do About Them.
+ * Description: Counters and phase times of a solver run, attached with setMetrics() or the file constructor of
+ *              APSPFinder, TwoSATFinder and HeuristicTSPMinCostFinder. Without metrics (the default) the solvers skip
+ *              all of it: their hot loops count into local variables or plain fields and only publish them here at
+ *              coarse points (after a Floyd-Warshall phase, every 4096 flips, every 16384 cities), so an attached
+ *              instance costs a few atomic adds per publication and a detached one a null check.
+ *
+ *              Counters (see Counter) are sums over the run, except TWO_SAT_UNSATISFIED, which holds the latest value.
+ *              Phases (parse, preprocess, solve) are timed with startPhase() and add up over repeated runs.
+ *
+ *              Reporting: progress() calls the ProgressListener at most once per report interval, and every finished
+ *              phase calls it once. Each report is also a JFR event (coursera.SolverProgress, and coursera.SolverPhase
+ *              per phase) if src-jfr/JfrSolverEvents is compiled, see SolverEvents.
+ *
+ * @author : Zitao He
+ * @date : 2026-10-19 01:50
+ **/
+public class SolverMetrics {
+
+    /**
+     * What the solvers count.
+     */
+    public enum Counter {
+        FW_PHASES,           //Floyd-Warshall phases finished, 3 per block of pivots
+        FW_RELAXATIONS,      //Floyd-Warshall cells times pivots, numVertices^3 per run
+        TWO_SAT_FLIPS,       //variables flipped by the local search
+        TWO_SAT_RESTARTS,    //local search trials started from a random assignment
+        TWO_SAT_UNSATISFIED, //unsatisfied clauses of the latest reporting trial (not a sum)
+        TSP_CITIES_PLACED,   //cities added to nearest neighbor tours
+        TSP_CANDIDATES       //2-d tree nodes examined while searching the nearest city
+    }
+
+    /**
+     * Timed stages of a solver run.
+     */
+    public enum Phase { PARSE, PREPROCESS, SOLVE }
+
+    public static final long DEFAULT_REPORT_INTERVAL_MILLIS = 1000;
+
+    private static final SolverEvents EVENTS = SolverEvents.load();
+
+    private final String solver;
+    private final ProgressListener listener; //null to record JFR events only
+    private final long reportIntervalNanos;
+    private final AtomicLongArray counters = new AtomicLongArray(Counter.values().length);
+    private final AtomicLongArray phaseNanos = new AtomicLongArray(Phase.values().length);
+    private final AtomicLong nextReport; //System.nanoTime() before which progress() doesn't report
+
+    /**
+     * Timer of one phase, stopped in the finally block of the timed code:
+     * timer = startPhase(metrics, phase); try { ... } finally { timer.stop(); }
+     */
+    public static final class PhaseTimer {
+        private static final PhaseTimer NONE = new PhaseTimer(null, null);
+
+        private final SolverMetrics metrics; //null for the timer of a solver without metrics
+        private final Phase phase;
+        private final Object event; //from SolverEvents.beginPhase()
+        private final long start;
+
+        private PhaseTimer(SolverMetrics metrics, Phase phase){
+            this.metrics = metrics;
+            this.phase = phase;
+            if (metrics == null){
+                event = null;
+                start = 0;
+                return;
+            }
+            event = EVENTS.beginPhase();
+            start = System.nanoTime();
+        }
+
+        /**
+         * Stop the timer, add the time to its phase and report it.
+         */
+        public void stop(){
+            if (metrics == null){
+                return;
+            }
+            long nanos = System.nanoTime() - start;
+            metrics.phaseNanos.addAndGet(phase.ordinal(), nanos);
+            EVENTS.endPhase(event, metrics.solver, phase);
+            metrics.report();
+        }
+    }
+
+    /**
+     * Metrics without listener, reported to JFR only.
+     * @param solver name of the solver run, shown in the reports
+     */
+    public SolverMetrics(String solver){
+        this(solver, null, DEFAULT_REPORT_INTERVAL_MILLIS);
+    }
+
+    /**
+     * Constructor of the metrics.
+     * @param solver name of the solver run, shown in the reports
+     * @param listener called with progress reports, null for none
+     * @param reportIntervalMillis minimum time between two reports of progress(), phase ends are always reported
+     */
+    public SolverMetrics(String solver, ProgressListener listener, long reportIntervalMillis){
+        if (reportIntervalMillis < 0){
+            throw new IllegalArgumentException("Error: report interval must not be negative.");
+        }
+        this.solver = solver;
+        this.listener = listener;
+        this.reportIntervalNanos = reportIntervalMillis * 1_000_000L;
+        nextReport = new AtomicLong(System.nanoTime() + reportIntervalNanos);
+    }
+
+    /**
+     * Start timing a phase.
+     * @param metrics metrics of the solver, or null
+     * @param phase phase to time
+     * @return timer to stop at the end of the phase, it does nothing if metrics is null
+     */
+    public static PhaseTimer startPhase(SolverMetrics metrics, Phase phase){
+        return metrics == null ? PhaseTimer.NONE : new PhaseTimer(metrics, phase);
+    }
+
+    public void add(Counter counter, long delta){
+        counters.addAndGet(counter.ordinal(), delta);
+    }
+
+    public void set(Counter counter, long value){
+        counters.set(counter.ordinal(), value);
+    }
+
+    public long get(Counter counter){
+        return counters.get(counter.ordinal());
+    }
+
+    /**
+     * Get the time spent in a phase.
+     * @param phase phase
+     * @return total time of the finished runs of the phase in milliseconds
+     */
+    public double getPhaseMillis(Phase phase){
+        return phaseNanos.get(phase.ordinal()) / 1e6;
+    }
+
+    public String getSolver(){
+        return solver;
+    }
+
+    /**
+     * Report progress if the report interval has passed since the last report. Cheap enough to call after every
+     * batch of work: it reads the clock, and only the thread that wins the report slot calls the listener.
+     */
+    public void progress(){
+        long now = System.nanoTime();
+        long next = nextReport.get();
+        if (now - next < 0 || !nextReport.compareAndSet(next, now + reportIntervalNanos)){
+            return;
+        }
+        report();
+    }
+
+    private void report(){
+        EVENTS.progress(this);
+        if (listener != null){
+            listener.onProgress(this);
+        }
+    }
+
+    /**
+     * The phases that ran and the counters that are not 0.
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(solver).append(':');
+        for (Phase phase : Phase.values()){
+            if (phaseNanos.get(phase.ordinal()) > 0){
+                text.append(String.format(" %s=%.1f ms", phase.name().toLowerCase(), getPhaseMillis(phase)));
+            }
+        }
+        for (Counter counter : Counter.values()){
+            if (get(counter) != 0){
+                text.append(' ').append(counter.name().toLowerCase()).append('=').append(get(counter));
+            }
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,275 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.InputMismatchException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Project: Coursera Algorithms by Standford University: Shortest Paths Revisited, NP-Complete Problems and What To Do About Them.
+ * Description: Long-running solver service on loopback HTTP, so that repeated solves skip the JVM start and run
+ *              with a warm JIT, and repeated instances skip the solve altogether.
+ *
+ *              POST /solve/apsp, /solve/2sat or /solve/tsp with the instance file as body (format of g1.txt,
+ *              2sat1.txt or nn.txt). The answer is text/plain:
+ *                  apsp: "negativeCycle=true" or "negativeCycle=false" and "min=<shortest shortest path>" (or "min=none")
+ *                  2sat: "SATISFIABLE" and the assignment as a bit string (bit v - 1 is x_v), or "UNSATISFIABLE"
+ *                  tsp:  "length=<nearest neighbor tour length>" and the tour as city IDs, starting and ending at city 1
+ *              and the header X-Cache tells where it came from: MISS (solved by this request), HIT (from the cache) or
+ *              SHARED (an identical request was being solved, this one waited for it).
+ *              GET /stats gives the request and cache counters, POST /cache/clear empties the cache.
+ *
+ *              Results are keyed by SHA-256 of the problem type and the body bytes, so a changed file is a new key and
+ *              an unchanged one a hit whatever its name. They are kept in a ResultCache (LRU, bounded in bytes).
+ *              Identical requests that arrive while the first one is solved share its CompletableFuture, so
+ *              every instance is solved once at a time. Malformed instances answer 400 and are not cached.
+ *
+ *              Usage: java SolverService [port [cacheMB [threads]]]
+ *                     curl --data-binary @data/g3.txt http://127.0.0.1:8080/solve/apsp
+ *              main turns on TCP_NODELAY (see enableNoDelay()). A program that creates the service itself has to do
+ *              that before its first HttpServer, or pass -Dsun.net.httpserver.nodelay=true.
+ *
+ * @author : Zitao He
+ * @date : 2026-10-19 03:40
+ **/
+public class SolverService {
+
+    public static final int DEFAULT_PORT = 8080;
+    public static final long DEFAULT_CACHE_MB = 64;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ResultCache cache;
+    private final ConcurrentHashMap<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong numRequests = new AtomicLong();
+    private final AtomicLong numSolves = new AtomicLong();
+    private final AtomicLong numShared = new AtomicLong();
+    private final AtomicLong numErrors = new AtomicLong();
+
+    /**
+     * Start the service.
+     * @param port port on the loopback interface, 0 for any free port
+     * @param cacheBytes memory budget of the result cache
+     * @param threads number of threads that handle requests (and solve)
+     * @throws IOException if the port can't be bound
+     */
+    public SolverService(int port, long cacheBytes, int threads) throws IOException {
+        if (threads < 1){
+            throw new IllegalArgumentException("Error: need at least 1 thread.");
+        }
+        cache = new ResultCache(cacheBytes);
+        executor = Executors.newFixedThreadPool(threads);
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/solve/", this::handleSolve);
+        server.createContext("/stats", exchange -> respond(exchange, 200, null, getStats()));
+        server.createContext("/cache/clear", exchange -> {
+            cache.clear();
+            respond(exchange, 200, null, "cleared");
+        });
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * Get the port the service listens on.
+     * @return port number, the bound one if 0 was given
+     */
+    public int getPort(){
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stop accepting requests and shut the threads down.
+     */
+    public void stop(){
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handleSolve(HttpExchange exchange) throws IOException {
+        numRequests.incrementAndGet();
+        String type = exchange.getRequestURI().getPath().substring("/solve/".length());
+        if (!type.equals("apsp") && !type.equals("2sat") && !type.equals("tsp")){
+            respond(exchange, 404, null, "Error: unknown problem type " + type + ", use apsp, 2sat or tsp.");
+            return;
+        }
+        if (!exchange.getRequestMethod().equals("POST")){
+            respond(exchange, 405, null, "Error: POST the instance file to /solve/" + type + ".");
+            return;
+        }
+        byte[] instance;
+        try (InputStream body = exchange.getRequestBody()) {
+            instance = body.readAllBytes();
+        }
+        String key = hash(type, instance);
+
+        String result = cache.get(key);
+        if (result != null){
+            respond(exchange, 200, "HIT", result);
+            return;
+        }
+        CompletableFuture<String> mine = new CompletableFuture<>();
+        CompletableFuture<String> running = inFlight.putIfAbsent(key, mine);
+        if (running == null){
+            try {
+                result = cache.peek(key); //it may have been cached between the first lookup and putIfAbsent
+                if (result == null){
+                    numSolves.incrementAndGet();
+                    result = solve(type, instance);
+                    cache.put(key, result);
+                }
+                mine.complete(result);
+            } catch (Throwable e) {
+                mine.completeExceptionally(e); //any failure, so the waiting requests fail with it instead of hanging
+            } finally {
+                inFlight.remove(key, mine);
+            }
+        }
+        else {
+            numShared.incrementAndGet();
+        }
+        try {
+            result = (running == null ? mine : running).join();
+        } catch (CompletionException e) {
+            numErrors.incrementAndGet();
+            Throwable cause = e.getCause();
+            boolean malformed = cause instanceof InputMismatchException || cause instanceof IllegalArgumentException;
+            String message = malformed && cause.getMessage() != null ? cause.getMessage() : "Error: " + cause;
+            respond(exchange, malformed ? 400 : 500, null, message + "\n");
+            return;
+        }
+        respond(exchange, 200, running == null ? "MISS" : "SHARED", result);
+    }
+
+    /**
+     * Solve an instance. The finders read files, so the body goes through a temporary file.
+     */
+    private static String solve(String type, byte[] instance) throws IOException {
+        Path file = Files.createTempFile("solver-service-", ".txt");
+        try {
+            Files.write(file, instance);
+            String fileName = file.toString();
+            switch (type){
+                case "apsp": return solveAPSP(fileName);
+                case "2sat": return solveTwoSAT(fileName);
+                default: return solveTSP(fileName);
+            }
+        } catch (InputMismatchException e) {
+            if (e.getMessage() == null){
+                throw e;
+            }
+            throw new InputMismatchException(e.getMessage().replace(file.toString(), "request body"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static String solveAPSP(String fileName) throws IOException {
+        APSPFinder finder = new APSPFinder(fileName);
+        finder.runAPSP();
+        APSPResult result = finder.getResult();
+        if (result.hasNegativeCycle()){
+            return "negativeCycle=true\n";
+        }
+        return "negativeCycle=false\nmin=" + (result.hasMinDistance() ? String.valueOf(result.getMinDistance()) : "none") + "\n";
+    }
+
+    private static String solveTwoSAT(String fileName) throws IOException {
+        int[] assignment = new TwoSATFinder(fileName).runSCCSolver();
+        if (assignment == null){
+            return "UNSATISFIABLE\n";
+        }
+        StringBuilder text = new StringBuilder(assignment.length + 16).append("SATISFIABLE\n");
+        for (int value : assignment){
+            text.append(value);
+        }
+        return text.append('\n').toString();
+    }
+
+    private static String solveTSP(String fileName) throws IOException {
+        HeuristicTSPMinCostFinder finder = new HeuristicTSPMinCostFinder(fileName);
+        int[] tour = finder.runHeuristicTour();
+        StringBuilder text = new StringBuilder(8 * tour.length).append("length=").append(finder.getTourLength(tour)).append('\n');
+        for (int i = 0; i < tour.length; i ++){
+            text.append(tour[i]).append(i + 1 < tour.length ? ' ' : '\n');
+        }
+        return text.toString();
+    }
+
+    /**
+     * Content key of an instance: SHA-256 of the problem type, a separator and the instance bytes, in hex.
+     */
+    static String hash(String type, byte[] instance){
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(type.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            byte[] hash = digest.digest(instance);
+            StringBuilder hex = new StringBuilder(2 * hash.length);
+            for (byte b : hash){
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Error: SHA-256 is not available.", e); //every JVM has to provide it
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String cacheStatus, String text) throws IOException {
+        byte[] body = text.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        if (cacheStatus != null){
+            exchange.getResponseHeaders().set("X-Cache", cacheStatus);
+        }
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Turn on TCP_NODELAY for the HttpServers of this JVM. Without it small responses wait for the delayed ACK of the
+     * client, about 40 ms on loopback. The JDK reads the property once, when the first HttpServer is created, so this
+     * has to run before that; -Dsun.net.httpserver.nodelay=true on the command line does the same.
+     */
+    static void enableNoDelay(){
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    /**
+     * Get the counters of the service.
+     * @return one line with the requests, solves, shared requests, errors and the cache statistics
+     */
+    public String getStats(){
+        return String.format("%d requests, %d solves, %d shared, %d errors, cache: %s%n",
+                numRequests.get(), numSolves.get(), numShared.get(), numErrors.get(), cache);
+    }
+
+    public ResultCache getCache(){
+        return cache;
+    }
+
+    public static void main(String[] args) throws IOException {
+        enableNoDelay();
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        long cacheMB = args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_CACHE_MB;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        SolverService service = new SolverService(port, cacheMB * 1024 * 1024, threads);
+        System.out.println("Solver service on http://127.0.0.1:" + service.getPort() + "/solve/{apsp,2sat,tsp}, "
+                + cacheMB + " MB cache, " + threads + " threads");
+        System.out.println("Example: curl --data-binary @data/g3.txt http://127.0.0.1:" + service.getPort() + "/solve/apsp");
+    }
+}
@@ -0,0 +1,241 @@
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Project: Coursera Algorithms by Standford University: Shortest Paths Revisited, NP-Complete Problems and What To Do About Them.
+ * Description: Replay load generator for SolverService. The instances are g1-g3.txt (apsp), 2sat1-2.txt (2sat) and
+ *              nn.txt (tsp) from the data directory, read once and sent as request bodies. Four rounds:
+ *
+ *              cold:   every instance once, in order, on a fresh service: cold JIT, parse and solve
+ *              warm:   cache cleared, every instance once more: warm JIT, parse and solve
+ *              dedupe: cache cleared, all clients send g3.txt at the same time, which should be 1 MISS and the rest SHARED
+ *              replay: cache cleared, the clients send a seeded random trace in which instance k has weight 1 / (k + 1)
+ *
+ *              and prints the latency (median, 95th percentile, max) by X-Cache status, the hit rate of the replay
+ *              and the counters of the service. Without -url it starts the service in this JVM on a free port, then
+ *              the first round really is cold; against a running service it's only cold if nothing was sent before.
+ *
+ *              Usage: java SolverServiceLoadGenerator [-url http://127.0.0.1:8080] [-n requests] [-c clients]
+ *                                                     [-cacheMB size] [-seed seed]
+ *
+ * @author : Zitao He
+ * @date : 2026-10-19 03:40
+ **/
+public class SolverServiceLoadGenerator {
+
+    private static final String[][] INSTANCES = {
+            {"apsp", "data/g1.txt"}, {"apsp", "data/g2.txt"}, {"apsp", "data/g3.txt"},
+            {"2sat", "data/2sat1.txt"}, {"2sat", "data/2sat2.txt"}, {"tsp", "data/nn.txt"}};
+    private static final int DEDUPE_INSTANCE = 2; //g3.txt, the slowest apsp instance
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final String url;
+    private final List<String> types = new ArrayList<>();
+    private final List<String> names = new ArrayList<>();
+    private final List<byte[]> bodies = new ArrayList<>();
+
+    /**
+     * One answered request.
+     */
+    private static class Sample {
+        private final int instance;
+        private final String cacheStatus; //MISS, HIT, SHARED or the HTTP status of a failure
+        private final double millis;
+
+        Sample(int instance, String cacheStatus, double millis){
+            this.instance = instance;
+            this.cacheStatus = cacheStatus;
+            this.millis = millis;
+        }
+    }
+
+    /**
+     * Constructor of the load generator. Reads the instances that exist.
+     * @param url base URL of the service, like http://127.0.0.1:8080
+     */
+    public SolverServiceLoadGenerator(String url) throws IOException {
+        this.url = url;
+        for (String[] instance : INSTANCES){
+            Path file = Paths.get(instance[1]);
+            if (Files.isRegularFile(file)){
+                types.add(instance[0]);
+                names.add(file.getFileName().toString());
+                bodies.add(Files.readAllBytes(file));
+            }
+        }
+        if (bodies.isEmpty()){
+            throw new IllegalStateException("Error: none of the instances is in the data directory.");
+        }
+    }
+
+    private Sample send(int instance) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url + "/solve/" + types.get(instance)))
+                .POST(HttpRequest.BodyPublishers.ofByteArray(bodies.get(instance))).build();
+        long start = System.nanoTime();
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        double millis = (System.nanoTime() - start) / 1e6;
+        String cacheStatus = response.statusCode() == 200
+                ? response.headers().firstValue("X-Cache").orElse("?") : "HTTP " + response.statusCode();
+        return new Sample(instance, cacheStatus, millis);
+    }
+
+    private String get(String path, boolean post) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url + path));
+        if (post){
+            request.POST(HttpRequest.BodyPublishers.noBody());
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString()).body();
+    }
+
+    private void clearCache() throws IOException, InterruptedException {
+        get("/cache/clear", true);
+    }
+
+    /**
+     * Send every instance once, one after the other, and print the latencies.
+     */
+    private void runSequential(String round) throws IOException, InterruptedException {
+        for (int k = 0; k < bodies.size(); k ++){
+            Sample sample = send(k);
+            System.out.printf("%-7s %-10s %-6s %10.1f ms%n", round, names.get(k), sample.cacheStatus, sample.millis);
+        }
+    }
+
+    /**
+     * Send requests from client threads that start together.
+     * @param trace instance of every request, the clients take them in turns
+     * @param clients number of client threads
+     * @return the samples in the order of the trace
+     */
+    private List<Sample> runConcurrent(int[] trace, int clients) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<Sample>>> futures = new ArrayList<>();
+        for (int c = 0; c < clients; c ++){
+            int first = c;
+            futures.add(pool.submit(() -> {
+                List<Sample> samples = new ArrayList<>();
+                start.await();
+                for (int i = first; i < trace.length; i += clients){
+                    samples.add(send(trace[i]));
+                }
+                return samples;
+            }));
+        }
+        start.countDown();
+        List<Sample> samples = new ArrayList<>();
+        try {
+            for (Future<List<Sample>> future : futures){
+                samples.addAll(future.get());
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error: request failed: " + e.getCause(), e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        return samples;
+    }
+
+    /**
+     * Print count, median, 95th percentile and max latency of the samples with a cache status.
+     */
+    private static void printLatencies(String round, List<Sample> samples){
+        for (String cacheStatus : new String[]{"MISS", "SHARED", "HIT"}){
+            double[] millis = samples.stream().filter(s -> s.cacheStatus.equals(cacheStatus)).mapToDouble(s -> s.millis).toArray();
+            if (millis.length == 0){
+                continue;
+            }
+            Arrays.sort(millis);
+            System.out.printf("%-7s %-6s %6d requests, median %9.2f ms, p95 %9.2f ms, max %9.2f ms%n", round, cacheStatus,
+                    millis.length, millis[(millis.length - 1) / 2], millis[(int) Math.ceil(0.95 * millis.length) - 1],
+                    millis[millis.length - 1]);
+        }
+        samples.stream().filter(s -> !s.cacheStatus.equals("MISS") && !s.cacheStatus.equals("SHARED") && !s.cacheStatus.equals("HIT"))
+                .forEach(s -> System.out.println(round + " failed request: " + s.cacheStatus));
+    }
+
+    /**
+     * Run the four rounds and print the results.
+     * @param numRequests length of the replay trace
+     * @param clients number of client threads
+     * @param seed seed of the replay trace
+     */
+    public void run(int numRequests, int clients, long seed) throws IOException, InterruptedException {
+        runSequential("cold");
+        clearCache();
+        runSequential("warm");
+
+        clearCache();
+        int[] dedupeTrace = new int[clients];
+        Arrays.fill(dedupeTrace, Math.min(DEDUPE_INSTANCE, bodies.size() - 1));
+        printLatencies("dedupe", runConcurrent(dedupeTrace, clients));
+
+        clearCache();
+        double[] cumulative = new double[bodies.size()];
+        double total = 0;
+        for (int k = 0; k < bodies.size(); k ++){
+            total += 1.0 / (k + 1);
+            cumulative[k] = total;
+        }
+        Random rand = new Random(seed);
+        int[] trace = new int[numRequests];
+        for (int i = 0; i < numRequests; i ++){
+            int k = Arrays.binarySearch(cumulative, rand.nextDouble() * total);
+            trace[i] = Math.min(k < 0 ? -k - 1 : k, bodies.size() - 1);
+        }
+        long start = System.nanoTime();
+        List<Sample> samples = runConcurrent(trace, clients);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        printLatencies("replay", samples);
+        long hits = samples.stream().filter(s -> s.cacheStatus.equals("HIT")).count();
+        System.out.printf("replay  %d requests from %d clients in %.2f s (%.0f requests/s), hit rate %.1f%%%n",
+                numRequests, clients, seconds, numRequests / seconds, 100.0 * hits / numRequests);
+        System.out.print("service " + get("/stats", false));
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String url = null;
+        int numRequests = 2000;
+        int clients = 4;
+        long cacheMB = SolverService.DEFAULT_CACHE_MB;
+        long seed = 42;
+        for (int i = 0; i < args.length; i ++){
+            switch (args[i]){
+                case "-url": url = args[++ i]; break;
+                case "-n": numRequests = Integer.parseInt(args[++ i]); break;
+                case "-c": clients = Integer.parseInt(args[++ i]); break;
+                case "-cacheMB": cacheMB = Long.parseLong(args[++ i]); break;
+                case "-seed": seed = Long.parseLong(args[++ i]); break;
+                default: throw new IllegalArgumentException("Error: unknown argument " + args[i] + ".");
+            }
+        }
+        SolverService service = null;
+        if (url == null){
+            SolverService.enableNoDelay();
+            service = new SolverService(0, cacheMB * 1024 * 1024, Math.max(clients, Runtime.getRuntime().availableProcessors()));
+            url = "http://127.0.0.1:" + service.getPort();
+        }
+        try {
+            new SolverServiceLoadGenerator(url).run(numRequests, clients, seed);
+        } finally {
+            if (service != null){
+                service.stop();
+            }
+        }
+    }
+}
@@ -0,0 +1,357 @@
+import java.util.Arrays;
+
+/**
+ * Project: Coursera Algorithms by Standford University: Shortest Paths Revisited, NP-Complete Problems and What To Do About Them.
+ * Description: Local search that shortens a TSP tour with 2-opt and Or-opt moves, used by HeuristicTSPMinCostFinder
+ *              after the nearest neighbor tour.
+ *
+ *              2-opt: remove two edges and reconnect the tour the other way, which reverses the path between them.
+ *              Or-opt: move a segment of 1 to 3 cities between two other adjacent cities, in either orientation.
+ *
+ *              Only moves that add an edge from a city to one of its k nearest neighbors are tried (candidate lists,
+ *              built once with CityKDTree). The neighbor lists are sorted, so the scan of a city stops at the first
+ *              neighbor that is not closer than the tour edge it would replace. Every city has a don't-look bit:
+ *              cities without an improving move leave the work queue and only come back when one of their tour edges
+ *              changes. The tour is an array with the position of every city, a reversal flips the shorter side of
+ *              the cycle and an Or-opt move rotates the shorter of the two blocks between the old and the new place.
+ *
+ *              The search stops at a local optimum or when the time budget is used up. The tour length is sampled
+ *              while it runs, getTraceMillis() and getTraceLengths() give the length against time.
+ *              Cities are numbered from 0 here.
+ *
+ * @author : Zitao He
+ * @date : 2026-10-19 00:20
+ **/
+public class TSPTourImprover {
+
+    private static final double MIN_GAIN = 1e-7; //smaller gains are rounding noise and could make the search cycle
+    private static final int TIME_CHECK_INTERVAL = 1 << 8; //cities taken from the queue between two reads of the clock
+    private static final long TRACE_INTERVAL_NANOS = 50_000_000L;
+
+    private final double[] xs;
+    private final double[] ys;
+    private final int numCities;
+    private final int numNeighbors;
+    private final int[] neighbors; //neighbors of city c are neighbors[c * numNeighbors ..], nearest first
+
+    private int[] tour;
+    private int[] position; //position[c] is the index of city c in tour
+    private double length;
+    private int twoOptMoves;
+    private int orOptMoves;
+    private double[] traceMillis = new double[16];
+    private double[] traceLengths = new double[16];
+    private int traceSize;
+
+    /**
+     * Constructor of the improver. Builds the candidate lists in O(n k log n).
+     * @param xs x coordinate of every city, shared and not modified
+     * @param ys y coordinate of every city, shared and not modified
+     * @param numNeighbors number of nearest neighbors per city that moves may connect to, like 8 or 10
+     */
+    public TSPTourImprover(double[] xs, double[] ys, int numNeighbors){
+        if (numNeighbors < 1){
+            throw new IllegalArgumentException("Error: need at least 1 neighbor per city.");
+        }
+        this.xs = xs;
+        this.ys = ys;
+        numCities = xs.length;
+        this.numNeighbors = Math.min(numNeighbors, Math.max(numCities - 1, 1));
+        neighbors = new int[numCities * this.numNeighbors];
+        CityKDTree tree = new CityKDTree(xs, ys);
+        int[] found = new int[this.numNeighbors + 1];
+        for (int c : tree.getCitiesInTreeOrder()){ //nearby queries one after another use the cache better
+            int count = tree.nearest(xs[c], ys[c], this.numNeighbors + 1, found);
+            int k = 0;
+            for (int f = 0; f < count && k < this.numNeighbors; f ++){
+                if (found[f] != c){
+                    neighbors[c * this.numNeighbors + k ++] = found[f];
+                }
+            }
+            while (k < this.numNeighbors){
+                neighbors[c * this.numNeighbors + k ++] = c; //fewer cities than neighbors, skipped by the moves
+            }
+        }
+    }
+
+    /**
+     * Improve a tour.
+     * @param cityTour tour as city indices, every city once, the closing edge back to cityTour[0] is implied
+     * @param budgetMillis time budget in milliseconds, 0 for no budget
+     * @return the improved tour, starting with the same city as cityTour
+     */
+    public int[] improve(int[] cityTour, long budgetMillis){
+        if (cityTour.length != numCities){
+            throw new IllegalArgumentException("Error: the tour has " + cityTour.length + " cities, expected " + numCities + ".");
+        }
+        long clockStart = System.nanoTime();
+        long deadline = budgetMillis == 0 ? Long.MAX_VALUE : clockStart + budgetMillis * 1_000_000L;
+        tour = cityTour.clone();
+        position = new int[numCities];
+        for (int i = 0; i < numCities; i ++){
+            position[tour[i]] = i;
+        }
+        length = 0;
+        for (int i = 0; i < numCities; i ++){
+            length += dist(tour[i], tour[(i + 1) % numCities]);
+        }
+        twoOptMoves = 0;
+        orOptMoves = 0;
+        traceSize = 0;
+        addTrace(0);
+
+        //work queue of cities whose don't-look bit is off
+        int[] queue = new int[numCities];
+        boolean[] queued = new boolean[numCities];
+        int head = 0;
+        int size = numCities;
+        for (int i = 0; i < numCities; i ++){
+            queue[i] = tour[i];
+            queued[tour[i]] = true;
+        }
+        long lastTrace = clockStart;
+        long pops = 0;
+        while (size > 0 && numCities >= 5){
+            if ((++ pops & (TIME_CHECK_INTERVAL - 1)) == 0){
+                long now = System.nanoTime();
+                if (now >= deadline){
+                    break;
+                }
+                if (now - lastTrace >= TRACE_INTERVAL_NANOS){
+                    addTrace((now - clockStart) / 1e6);
+                    lastTrace = now;
+                }
+            }
+            int city = queue[head];
+            head = (head + 1) % numCities;
+            size --;
+            queued[city] = false;
+            int[] touched = tryTwoOpt(city);
+            if (touched == null){
+                touched = tryOrOpt(city);
+            }
+            if (touched != null){
+                for (int t : touched){
+                    if (!queued[t]){
+                        queued[t] = true;
+                        queue[(head + size ++) % numCities] = t;
+                    }
+                }
+            }
+        }
+        addTrace((System.nanoTime() - clockStart) / 1e6);
+
+        //rotate so that the tour starts where the input started
+        int[] result = new int[numCities];
+        int start = position[cityTour[0]];
+        for (int i = 0; i < numCities; i ++){
+            result[i] = tour[(start + i) % numCities];
+        }
+        return result;
+    }
+
+    /**
+     * Try the 2-opt moves that add the edge (a, c) for a neighbor c of a.
+     * @return the endpoints of the changed edges if a move was made, null otherwise
+     */
+    private int[] tryTwoOpt(int a){
+        for (int direction = 0; direction < 2; direction ++){
+            boolean forward = direction == 0;
+            int b = forward ? next(a) : prev(a);
+            double removedAB = dist(a, b);
+            for (int k = 0; k < numNeighbors; k ++){
+                int c = neighbors[a * numNeighbors + k];
+                double addedAC = dist(a, c);
+                if (addedAC >= removedAB){
+                    break; //the other neighbors are farther, no gain possible
+                }
+                int d = forward ? next(c) : prev(c);
+                if (c == b || d == a){
+                    continue;
+                }
+                double gain = removedAB + dist(c, d) - addedAC - dist(b, d);
+                if (gain > MIN_GAIN){
+                    if (forward){
+                        reverse(position[b], position[c]); //a b .. c d -> a c .. b d
+                    }
+                    else {
+                        reverse(position[c], position[b]); //d c .. b a -> d b .. c a
+                    }
+                    length -= gain;
+                    twoOptMoves ++;
+                    return new int[]{a, b, c, d};
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Try the Or-opt moves of the segments of 1 to 3 cities that start at s1 (going forward) to the edges
+     * next to the neighbors of the two segment ends.
+     * @return the endpoints of the changed edges if a move was made, null otherwise
+     */
+    private int[] tryOrOpt(int s1){
+        for (int segmentLength = 1; segmentLength <= 3 && segmentLength <= numCities - 4; segmentLength ++){
+            int s2 = tour[(position[s1] + segmentLength - 1) % numCities];
+            int p = prev(s1);
+            int n = next(s2);
+            double removeGain = dist(p, s1) + dist(s2, n) - dist(p, n);
+            if (removeGain <= MIN_GAIN){
+                continue;
+            }
+            for (int end = 0; end < 2; end ++){
+                int from = end == 0 ? s1 : s2;
+                for (int k = 0; k < numNeighbors; k ++){
+                    int c = neighbors[from * numNeighbors + k];
+                    if (dist(from, c) >= removeGain){
+                        break; //inserting next to c costs at least this much
+                    }
+                    if (inSegment(c, s1, segmentLength)){
+                        continue;
+                    }
+                    //insert between c and one of its tour neighbors, u -> v in tour order
+                    for (int side = 0; side < 2; side ++){
+                        int u = side == 0 ? c : prev(c);
+                        int v = next(u);
+                        if (u == p || inSegment(u, s1, segmentLength)){
+                            continue; //(p, s1) and the edges inside the segment are not kept
+                        }
+                        double forwardCost = dist(u, s1) + dist(s2, v) - dist(u, v);
+                        double reversedCost = dist(u, s2) + dist(s1, v) - dist(u, v);
+                        boolean reversed = reversedCost < forwardCost;
+                        double gain = removeGain - (reversed ? reversedCost : forwardCost);
+                        if (gain > MIN_GAIN){
+                            moveSegment(s1, segmentLength, u, reversed);
+                            length -= gain;
+                            orOptMoves ++;
+                            return new int[]{p, n, s1, s2, u, v};
+                        }
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private boolean inSegment(int city, int s1, int segmentLength){
+        return Math.floorMod(position[city] - position[s1], numCities) < segmentLength;
+    }
+
+    /**
+     * Move the segment of segmentLength cities starting at s1 between u and next(u). Rotates whichever of the two
+     * blocks [segment .. u] and [next(u) .. segment] is shorter.
+     */
+    private void moveSegment(int s1, int segmentLength, int u, boolean reversed){
+        int start = position[s1];
+        int afterSegment = Math.floorMod(position[u] - start + 1, numCities); //segment + cities up to u
+        int beforeSegment = Math.floorMod(start - position[u] - 1, numCities); //cities from next(u) up to the segment
+        if (afterSegment <= beforeSegment + segmentLength){
+            //[S][n .. u] -> [n .. u][S]
+            rotate(start, afterSegment, segmentLength);
+        }
+        else {
+            //[v .. p][S] -> [S][v .. p]
+            rotate((position[u] + 1) % numCities, beforeSegment + segmentLength, beforeSegment);
+        }
+        if (reversed){
+            int newStart = position[s1];
+            reverse(newStart, (newStart + segmentLength - 1) % numCities);
+        }
+    }
+
+    /**
+     * Rotate the block of count positions starting at from to the left by shift, with three reversals.
+     */
+    private void rotate(int from, int count, int shift){
+        reverseRange(from, shift);
+        reverseRange((from + shift) % numCities, count - shift);
+        reverseRange(from, count);
+    }
+
+    /**
+     * Reverse the path from position i forward to position j. The cycle is the same if the other side is reversed
+     * instead, so the shorter side is reversed.
+     */
+    private void reverse(int i, int j){
+        int count = Math.floorMod(j - i, numCities) + 1;
+        if (2 * count <= numCities){
+            reverseRange(i, count);
+        }
+        else {
+            reverseRange((j + 1) % numCities, numCities - count);
+        }
+    }
+
+    private void reverseRange(int from, int count){
+        int left = from;
+        int right = (from + count - 1) % numCities;
+        for (int step = 0; step < count / 2; step ++){
+            int city = tour[left];
+            tour[left] = tour[right];
+            tour[right] = city;
+            position[tour[left]] = left;
+            position[tour[right]] = right;
+            left = left + 1 == numCities ? 0 : left + 1;
+            right = right == 0 ? numCities - 1 : right - 1;
+        }
+    }
+
+    private int next(int city){
+        int i = position[city] + 1;
+        return tour[i == numCities ? 0 : i];
+    }
+
+    private int prev(int city){
+        int i = position[city];
+        return tour[i == 0 ? numCities - 1 : i - 1];
+    }
+
+    private double dist(int a, int b){
+        double dx = xs[a] - xs[b];
+        double dy = ys[a] - ys[b];
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    private void addTrace(double millis){
+        if (traceSize == traceMillis.length){
+            traceMillis = Arrays.copyOf(traceMillis, 2 * traceSize);
+            traceLengths = Arrays.copyOf(traceLengths, 2 * traceSize);
+        }
+        traceMillis[traceSize] = millis;
+        traceLengths[traceSize] = length;
+        traceSize ++;
+    }
+
+    /**
+     * Get the length of the tour found by the last improve(), kept up to date by the move gains.
+     * @return tour length
+     */
+    public double getLength(){
+        return length;
+    }
+
+    public int getTwoOptMoves(){
+        return twoOptMoves;
+    }
+
+    public int getOrOptMoves(){
+        return orOptMoves;
+    }
+
+    /**
+     * Get the times of the length samples of the last improve(), the first sample is the input tour.
+     * @return milliseconds since improve() started
+     */
+    public double[] getTraceMillis(){
+        return Arrays.copyOf(traceMillis, traceSize);
+    }
+
+    /**
+     * Get the tour lengths of the samples, see getTraceMillis().
+     * @return tour length at every sample
+     */
+    public double[] getTraceLengths(){
+        return Arrays.copyOf(traceLengths, traceSize);
+    }
+}
@@ -0,0 +1,280 @@
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.InputMismatchException;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Project: Coursera Algorithms by Standford University: Shortest Paths Revisited, NP-Complete Problems and What To Do About Them.
+ * Description: Batch mode of TwoSATFinder for directories of instances. Every instance is parsed and decided by the
+ *              SCC solver on a worker thread, and nothing of it is kept after its result line is printed:
+ *              at most 2 * threads instances are in flight, so memory is bounded by the largest instances, not by their number.
+ *              Results are printed in the order of the input files (sorted by path), one line per instance with
+ *              SAT, UNSAT or ERROR, the time to parse and solve it and the bytes its worker thread allocated for it.
+ *              The summary gives the number of instances, the throughput and optionally the bit string
+ *              (1 for SAT, 0 for UNSAT, ? for ERROR) that the programming assignment asks for.
+ *
+ *              Usage: java TwoSATBatchRunner [-t threads] [-o outputFile] [-bits] (directory | glob)...
+ *              A glob like "data/2sat[0-9].txt" or "instances/**.txt" is matched against the paths below its
+ *              first directory without wildcards, a directory stands for all regular files in it.
+ *
+ * @author : Zitao He
+ * @date : 2026-10-18 23:30
+ **/
+public class TwoSATBatchRunner {
+
+    /**
+     * Outcome of one instance.
+     */
+    public static class InstanceResult {
+        private final Path file;
+        private final TwoSATResult.Verdict verdict; //null if the instance couldn't be read
+        private final String error;
+        private final double millis;
+        private final long allocatedBytes; //-1 if the JVM can't measure allocation
+
+        InstanceResult(Path file, TwoSATResult.Verdict verdict, String error, double millis, long allocatedBytes){
+            this.file = file;
+            this.verdict = verdict;
+            this.error = error;
+            this.millis = millis;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        public Path getFile() {
+            return file;
+        }
+
+        public TwoSATResult.Verdict getVerdict() {
+            return verdict;
+        }
+
+        public double getMillis() {
+            return millis;
+        }
+
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+
+        /**
+         * Get the bit of the instance in the answer string.
+         * @return '1' if satisfiable, '0' if unsatisfiable, '?' if the instance couldn't be read
+         */
+        public char getBit(){
+            return verdict == null ? '?' : verdict == TwoSATResult.Verdict.SATISFIABLE ? '1' : '0';
+        }
+
+        @Override
+        public String toString() {
+            String status = verdict == null ? "ERROR" : verdict == TwoSATResult.Verdict.SATISFIABLE ? "SAT" : "UNSAT";
+            String alloc = allocatedBytes < 0 ? "n/a" : String.format("%.1f KB", allocatedBytes / 1024.0);
+            return String.format("%-40s %-5s %10.1f ms %14s%s", file, status, millis, alloc, error == null ? "" : "  " + error);
+        }
+    }
+
+    private final int threads;
+    private final PrintStream out;
+
+    /**
+     * Constructor of the runner.
+     * @param threads number of worker threads
+     * @param out stream the result lines and the summary are printed to
+     */
+    public TwoSATBatchRunner(int threads, PrintStream out){
+        if (threads < 1){
+            throw new IllegalArgumentException("Error: need at least 1 thread.");
+        }
+        this.threads = threads;
+        this.out = out;
+    }
+
+    /**
+     * Expand directories and globs into the list of instance files.
+     * @param patterns directories, globs or plain files
+     * @return regular files, sorted by path
+     * @throws IOException if a directory can't be listed
+     */
+    public static List<Path> findInstances(String... patterns) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (String pattern : patterns){
+            int wildcard = firstWildcard(pattern);
+            if (wildcard < 0){
+                Path path = Paths.get(pattern);
+                if (Files.isDirectory(path)){
+                    try (Stream<Path> listing = Files.list(path)) {
+                        listing.filter(Files::isRegularFile).forEach(files::add);
+                    }
+                }
+                else {
+                    files.add(path); //a missing file is reported as ERROR with the others
+                }
+                continue;
+            }
+            int slash = pattern.lastIndexOf('/', wildcard);
+            Path base = Paths.get(slash < 0 ? "." : pattern.substring(0, slash + 1));
+            PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern.substring(slash + 1));
+            if (!Files.isDirectory(base)){
+                continue;
+            }
+            try (Stream<Path> walk = Files.walk(base)) {
+                walk.filter(Files::isRegularFile)
+                        .filter(path -> matcher.matches(base.relativize(path)))
+                        .forEach(files::add);
+            }
+        }
+        Collections.sort(files);
+        return files;
+    }
+
+    private static int firstWildcard(String pattern){
+        for (int i = 0; i < pattern.length(); i ++){
+            if ("*?[{".indexOf(pattern.charAt(i)) >= 0){
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Solve all instances and print one line per instance in the order of files, then the summary.
+     * @param files instance files
+     * @param printBits print the bit string in the summary
+     * @return results in the order of files
+     */
+    public List<InstanceResult> run(List<Path> files, boolean printBits){
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<InstanceResult> results = new ArrayList<>(files.size());
+        ArrayDeque<Future<InstanceResult>> inFlight = new ArrayDeque<>();
+        ArrayDeque<Path> inFlightFiles = new ArrayDeque<>();
+        long clockStart = System.nanoTime();
+        try {
+            for (Path file : files){
+                if (inFlight.size() == 2 * threads){
+                    report(inFlightFiles.poll(), inFlight.poll(), results); //wait for the oldest, keeps the output in order
+                }
+                inFlight.add(pool.submit(() -> solve(file)));
+                inFlightFiles.add(file);
+            }
+            while (!inFlight.isEmpty()){
+                report(inFlightFiles.poll(), inFlight.poll(), results);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        double seconds = (System.nanoTime() - clockStart) / 1e9;
+
+        int numSatisfiable = 0;
+        int numErrors = 0;
+        StringBuilder bits = new StringBuilder(results.size());
+        for (InstanceResult result : results){
+            numSatisfiable += result.getBit() == '1' ? 1 : 0;
+            numErrors += result.getBit() == '?' ? 1 : 0;
+            bits.append(result.getBit());
+        }
+        out.printf("%d instances (%d SAT, %d UNSAT, %d ERROR) in %.3f s, %.1f instances/s on %d threads%n",
+                results.size(), numSatisfiable, results.size() - numSatisfiable - numErrors, numErrors, seconds,
+                seconds > 0 ? results.size() / seconds : 0.0, threads);
+        if (printBits){
+            out.println("Bits: " + bits);
+        }
+        return results;
+    }
+
+    private void report(Path file, Future<InstanceResult> future, List<InstanceResult> results){
+        InstanceResult result;
+        try {
+            result = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Error: interrupted while waiting for an instance.", e);
+        } catch (ExecutionException e) {
+            //an Error that solve() doesn't catch, it only fails this instance
+            result = new InstanceResult(file, null, "Error: " + e.getCause(), 0, -1);
+        }
+        results.add(result);
+        out.println(result);
+    }
+
+    /**
+     * Parse and solve one instance on the calling thread.
+     * @param file instance file in the format of 2sat1.txt
+     * @return its result, with ERROR if the file is missing or malformed or solving it fails
+     */
+    public static InstanceResult solve(Path file){
+        long allocatedBefore = allocatedBytes();
+        long clockStart = System.nanoTime();
+        TwoSATResult.Verdict verdict = null;
+        String error = null;
+        try {
+            TwoSATFinder finder = new TwoSATFinder(file.toString());
+            verdict = finder.runSCCSolver() != null ? TwoSATResult.Verdict.SATISFIABLE : TwoSATResult.Verdict.UNSATISFIABLE;
+        } catch (FileNotFoundException | UncheckedIOException | InputMismatchException | IllegalArgumentException e) {
+            error = e.getMessage();
+        } catch (RuntimeException | OutOfMemoryError e) {
+            error = "Error: " + e; //unexpected, but only this instance fails and the batch goes on
+        }
+        double millis = (System.nanoTime() - clockStart) / 1e6;
+        long allocatedAfter = allocatedBytes();
+        return new InstanceResult(file, verdict, error, millis, allocatedBefore < 0 ? -1 : allocatedAfter - allocatedBefore);
+    }
+
+    private static long allocatedBytes(){
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (threadBean instanceof com.sun.management.ThreadMXBean){
+            com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+            if (allocationBean.isThreadAllocatedMemorySupported() && allocationBean.isThreadAllocatedMemoryEnabled()){
+                return allocationBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        String outputFile = null;
+        boolean printBits = false;
+        List<String> patterns = new ArrayList<>();
+        for (int a = 0; a < args.length; a ++){
+            boolean needsValue = args[a].equals("-t") || args[a].equals("-o");
+            if (needsValue && a + 1 == args.length){
+                throw new IllegalArgumentException("Error: option " + args[a] + " needs a value.");
+            }
+            switch (args[a]){
+                case "-t": threads = Integer.parseInt(args[++ a]); break;
+                case "-o": outputFile = args[++ a]; break;
+                case "-bits": printBits = true; break;
+                default: patterns.add(args[a]);
+            }
+        }
+        if (patterns.isEmpty()){
+            patterns.add("data/2sat[0-9].txt"); //the instances of the programming assignment
+            printBits = true;
+        }
+        List<Path> files = findInstances(patterns.toArray(new String[0]));
+        if (outputFile == null){
+            new TwoSATBatchRunner(threads, System.out).run(files, printBits);
+        }
+        else {
+            try (PrintStream out = new PrintStream(outputFile)) {
+                new TwoSATBatchRunner(threads, out).run(files, printBits);
+            }
+        }
+    }
+}
@@ -1,7 +1,5 @@
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.IOException;
-import java.math.BigInteger;
 import java.util.*;
 
 /**
@@ -53,169 +51,244 @@ import java.util.*;
  **/
 public class TwoSATFinder {
 
-    private final ArrayList<int[]> clauses;
-    private ArrayList<int[]> reducedClauses;
+    private static final int MAX_VARIABLES = Integer.MAX_VALUE / 2; //the implication graph has 2 * numVariables nodes
+
+    private final int[] clauseLiterals; //clause c is (clauseLiterals[2c] OR clauseLiterals[2c + 1])
+    private final int numClauses;
+    private TwoSATPreprocessor preprocessor; //null until the clauses are first reduced
     private final int numVariables; //number of variables and number of clauses the same
+    private long seed = System.nanoTime(); //seed of the local search
+    private SolverMetrics metrics; //null if nothing is counted
 
     /**
      * Construct the 2 SAT problem using external txt file. The file format can be found in class description.
+     * Clauses are read up to the end of the file, the first line only gives the number of variables.
      * @param fileInputName
      * @throws FileNotFoundException
+     * @throws InputMismatchException if a line of the file is malformed, uses a variable out of range or the number of
+     *         variables is out of range
      */
     public TwoSATFinder(String fileInputName) throws FileNotFoundException{
-        Scanner fileScanner;
-
-        try {
-            fileScanner = new Scanner(new File(fileInputName));
-        } catch (IOException e) {
-            throw new FileNotFoundException("Error: Input file is not found.");
-        }
-
-        numVariables = Integer.parseInt(fileScanner.nextLine());
-        clauses = new ArrayList<>();
-        reducedClauses = new ArrayList<>();
-
-        while (fileScanner.hasNextLine()){
-            int[] clause = new int[2];
-            String[] clauseString = fileScanner.nextLine().split(" ");
-            clause[0] = Integer.parseInt(clauseString[0]);
-            clause[1] = Integer.parseInt(clauseString[1]);
-            clauses.add(clause);
-            reducedClauses.add(clause);
-        }
+        this(fileInputName, null);
     }
 
     /**
-     * Remove redundant clauses. If there is a clause item that has no its negated clause item appears,
-     * the clause can be simply removed because there is always a value for it (1 or 0) that satisfies the clause.
-     * Removing process will run for multiple times until there is no more such a clause to reduce.
+     * Construct the 2 SAT problem from a file, timing the parsing and counting in metrics afterwards, see setMetrics().
+     * @param fileInputName
+     * @param metrics metrics of the finder, or null
+     * @throws FileNotFoundException
+     * @throws InputMismatchException if a line of the file is malformed, uses a variable out of range or the number of
+     *         variables is out of range
      */
-    private void removeRedundantClauses(){
-
-        HashSet<Integer> uniqueClauseElements = new HashSet<>();
-        HashSet<Integer> noNegatedClauseElements = new HashSet<>(); //to store all clause elements that do not have negated clause elements
-        ArrayList<int[]> reducedClausesTemp = new ArrayList<>();
-        boolean ignite = true; //boolean variable only used to ignite while loop
-        while(!noNegatedClauseElements.isEmpty() || ignite){
-            ignite = false;
-            uniqueClauseElements.clear();
-            noNegatedClauseElements.clear();
-            reducedClausesTemp.clear();
-            for (int[] clause : reducedClauses){
-                uniqueClauseElements.add(clause[0]);
-                uniqueClauseElements.add(clause[1]);
+    public TwoSATFinder(String fileInputName, SolverMetrics metrics) throws FileNotFoundException{
+        this.metrics = metrics;
+        SolverMetrics.PhaseTimer parseTimer = SolverMetrics.startPhase(metrics, SolverMetrics.Phase.PARSE);
+        try (FastInputParser parser = new FastInputParser(fileInputName)) {
+            numVariables = parser.nextInt();
+            if (numVariables < 1 || numVariables > MAX_VARIABLES){
+                throw new InputMismatchException("Error: " + fileInputName + " line 1: number of variables "
+                        + numVariables + " is out of range 1.." + MAX_VARIABLES + ".");
             }
-            for (Integer clauseElement : uniqueClauseElements){
-                int negated = clauseElement * (-1);
-                if (!uniqueClauseElements.contains(negated)){
-                    noNegatedClauseElements.add(clauseElement);
+            parser.endLine();
+
+            int[] literals = new int[2 * Math.max(numVariables, 1)];
+            int count = 0;
+            while (parser.hasNext()){
+                if (count == literals.length){
+                    literals = Arrays.copyOf(literals, 2 * literals.length);
                 }
-            }
-            for (int[] clause : reducedClauses){
-                if (!noNegatedClauseElements.contains(clause[0]) && !noNegatedClauseElements.contains(clause[1])){
-                    reducedClausesTemp.add(clause);
+                int line = parser.getLineNumber();
+                literals[count] = parser.nextInt();
+                literals[count + 1] = parser.nextInt();
+                parser.endLine();
+                for (int k = count; k < count + 2; k ++){
+                    if (literals[k] == 0 || Math.abs((long) literals[k]) > numVariables){
+                        throw new InputMismatchException("Error: " + fileInputName + " line " + line
+                                + ": variable " + literals[k] + " is out of range 1.." + numVariables + ".");
+                    }
                 }
+                count += 2;
+            }
+            clauseLiterals = Arrays.copyOf(literals, count);
+            numClauses = count / 2;
+        } finally {
+            parseTimer.stop();
+        }
+    }
+
+    /**
+     * Remove redundant clauses with TwoSATPreprocessor: tautologies, duplicates, and the clauses satisfied by
+     * unit and pure literals, which keep their values for the final assignment. The result is computed once.
+     * @return the preprocessor, with the reduced clauses and the reduction statistics
+     */
+    public TwoSATPreprocessor preprocess(){
+        if (preprocessor == null){
+            SolverMetrics.PhaseTimer preprocessTimer = SolverMetrics.startPhase(metrics, SolverMetrics.Phase.PREPROCESS);
+            try {
+                preprocessor = new TwoSATPreprocessor(numVariables, clauseLiterals, numClauses);
+            } finally {
+                preprocessTimer.stop();
             }
-            reducedClauses.clear();
-            reducedClauses.addAll(reducedClausesTemp);
         }
+        return preprocessor;
     }
 
     /**
      * Run Papadimitriou's local search algorithm to find a solution that satisfies all clauses(reduced).
+     * The search itself runs in TwoSATLocalSearch, where a flip costs O(occurrences of the flipped variable).
+     * Variables fixed by preprocess() keep their values. An instance the preprocessing proves unsatisfiable returns null at once.
      * @return a valid integer array if a satisfied solution is found and null if not.
      */
     public int[] runTwoSatSearch(){
-        removeRedundantClauses();
-        int[] assignment = new int[numVariables];
-        if (reducedClauses.isEmpty()){
-            Arrays.fill(assignment, getRandomOneOrZero());
-            return assignment;
+        TwoSATPreprocessor reduced = preprocess();
+        if (reduced.isUnsatisfiable()){
+            return null;
         }
         int trials = (int)(Math.log(numVariables) / Math.log(2)) + 1; //Papadimitriou's algorithm. Try log2(n) times of local search.
+        long flipsPerTrial = 2L * numVariables * numVariables; //Papadimitriou's algorithm. Try 2*n^2 flips per trial.
 
-        BigInteger subTrials = new BigInteger(String.valueOf(numVariables)); //Papadimitriou's algorithm. Try 2*n^2 times to flip one value in arbitrary unsatisfied clause and check all clauses.
-        subTrials = subTrials.multiply(new BigInteger(String.valueOf(numVariables))).multiply(new BigInteger(String.valueOf(2)));
+        int[] assignment;
+        SolverMetrics.PhaseTimer solveTimer = SolverMetrics.startPhase(metrics, SolverMetrics.Phase.SOLVE);
+        try {
+            TwoSATLocalSearch search = new TwoSATLocalSearch(numVariables, reduced.getReducedLiterals(),
+                    reduced.getNumReducedClauses(), seed);
+            search.setMetrics(metrics);
+            assignment = search.search(trials, flipsPerTrial);
+        } finally {
+            solveTimer.stop();
+        }
+        if (assignment == null){
+            return null;
+        }
+        reduced.completeAssignment(assignment);
+        return assignment;
+    }
 
-        for (int i = 0; i < trials; i ++){
-            HashSet<int[]> unsatisfiedClauses = new HashSet<>(); //track unsatisfied clauses. As search goes go, the size of this set will be reduced.
-            //choose a random initial assignment for all variables
-            Arrays.fill(assignment, getRandomOneOrZero());
-            System.out.println("Current trial: " + i + "/" + (trials-1));
-            BigInteger k = new BigInteger("0");
+    /**
+     * Run the trials of Papadimitriou's local search concurrently (see TwoSATPortfolio) on the reduced clauses.
+     * The first trial that satisfies all clauses stops the others. The trial seeds are derived from the seed of
+     * setSeed(), so with a fixed seed the same trials are run and getSeed() of the result replays the winning one.
+     * @param threads number of worker threads
+     * @param budgetMillis wall-clock budget in milliseconds, 0 for no budget
+     * @return SATISFIABLE with a satisfying assignment, or UNKNOWN if no trial succeeded within the budget
+     */
+    public TwoSATResult runPortfolioSearch(int threads, long budgetMillis){
+        TwoSATPreprocessor reduced = preprocess();
+        if (reduced.isUnsatisfiable()){
+            return TwoSATResult.unsatisfiable();
+        }
+        if (reduced.getNumReducedClauses() == 0){
+            int[] assignment = new int[numVariables];
+            reduced.completeAssignment(assignment);
+            return TwoSATResult.satisfiable(assignment, -1, seed);
+        }
+        int trials = (int)(Math.log(numVariables) / Math.log(2)) + 1;
+        long flipsPerTrial = 2L * numVariables * numVariables;
 
-            while(k.compareTo(subTrials) < 0){
-                unsatisfiedClauses.clear();
-                for (int[] clause : reducedClauses){
+        TwoSATResult result;
+        SolverMetrics.PhaseTimer solveTimer = SolverMetrics.startPhase(metrics, SolverMetrics.Phase.SOLVE);
+        try {
+            TwoSATPortfolio portfolio = new TwoSATPortfolio(numVariables, reduced.getReducedLiterals(),
+                    reduced.getNumReducedClauses());
+            portfolio.setMetrics(metrics);
+            result = portfolio.run(threads, trials, flipsPerTrial, seed, budgetMillis);
+        } finally {
+            solveTimer.stop();
+        }
+        if (result.getVerdict() != TwoSATResult.Verdict.SATISFIABLE){
+            return result;
+        }
+        int[] assignment = result.getAssignment();
+        reduced.completeAssignment(assignment);
+        return TwoSATResult.satisfiable(assignment, result.getWinningTrial(), result.getSeed());
+    }
 
-                    int assignedFirstValue = assignment[Math.abs(clause[0]) - 1];
-                    int assignedSecondValue = assignment[Math.abs(clause[1]) - 1];
+    /**
+     * Set the seed of runTwoSatSearch() and runPortfolioSearch(), the same seed gives the same search. By default it comes from the clock.
+     * @param seed random seed
+     */
+    public void setSeed(long seed){
+        this.seed = seed;
+    }
 
-                    //get the value of first/second clause element(either 1 or 0, depending on clause operator and assigned variable value).
-                    int clauseFirstValue = clause[0] < 0 ? 1 - assignedFirstValue : assignedFirstValue;
-                    int clauseSecondValue = clause[1] < 0 ? 1 - assignedSecondValue : assignedSecondValue;
+    /**
+     * Count in metrics: preprocess() is timed as preprocessing, the searches and the SCC solver as solving,
+     * and the local search counts its flips, restarts and unsatisfied clauses.
+     * @param metrics metrics to count in, null (the default) to count nothing
+     */
+    public void setMetrics(SolverMetrics metrics){
+        this.metrics = metrics;
+    }
 
-                    if (clauseFirstValue == 0 && clauseSecondValue == 0){//the only way to fail the clause is that both clause values are zero
-                        unsatisfiedClauses.add(clause);
-                    }
-                }
-                if (unsatisfiedClauses.isEmpty()){ //If a satisfied solution is found, this set goes to empty. Return the current solution as satisfied solution.
-                    return assignment;
-                }
-                //Pick an arbitrary unsatisfied clause and flip the value of one of its variable(choose between the two uniformly at random).
-                int[] arbitraryUnsatisfiedClause = getRandomClause(unsatisfiedClauses);
-                int variableToFlip = Math.abs(arbitraryUnsatisfiedClause[getRandomOneOrZero()]);
-                assignment[variableToFlip - 1] = 1 - assignment[variableToFlip - 1]; // flip the value.
-                k = k.add(new BigInteger("1"));
-            }
+    /**
+     * Decide the instance with the deterministic SCC solver (see TwoSATSCCSolver) in O(numVariables + numClauses).
+     * Unlike runTwoSatSearch() it also terminates quickly on unsatisfiable instances.
+     * @return a satisfying assignment (assignment[v - 1] is the value of variable v) or null if there is none.
+     */
+    public int[] runSCCSolver(){
+        SolverMetrics.PhaseTimer solveTimer = SolverMetrics.startPhase(metrics, SolverMetrics.Phase.SOLVE);
+        try {
+            TwoSATSCCSolver solver = new TwoSATSCCSolver(numVariables, clauseLiterals, numClauses);
+            return solver.solve() ? solver.getAssignment() : null;
+        } finally {
+            solveTimer.stop();
         }
-        return null;
+    }
+
+    public int getNumVariables(){
+        return numVariables;
     }
 
     /**
-     * Helper method to uniformly, randomly generate an one or a zero.
-     * @return random value (either an one or a zero).
+     * Start an incremental solver on the clauses of this instance, to add clauses to it later (see TwoSATIncrementalSolver).
+     * @return the solver, with the instance solved by the SCC solver
      */
-    private int getRandomOneOrZero(){
-        Random rand = new Random();
-        return rand.nextBoolean() ? 1 : 0;
+    public TwoSATIncrementalSolver toIncrementalSolver(){
+        return new TwoSATIncrementalSolver(numVariables, clauseLiterals, numClauses);
     }
 
     /**
-     * Helper method to uniformly, randomly return a element in passed HashSet.
-     * @param clauseSet the set to give random element.
-     * @return the random element in set.
+     * Check an assignment against all clauses of the instance.
+     * @param assignment assignment[v - 1] is 1 if variable v is true and 0 if it is false
+     * @return true if every clause is satisfied
      */
-    private int[] getRandomClause(HashSet<int[]> clauseSet){
-        if (clauseSet.isEmpty()){
-            throw new IllegalArgumentException("Error in method getRandomClause(HashSet<int[]>, the set passed in is empty");
-        }
-        int size = clauseSet.size();
-        int randomIndex = new Random().nextInt(size);
-        int i = 0;
-        for(int[] clause : clauseSet){
-            if (i == randomIndex)
-                return clause;
-            i++;
+    public boolean isSatisfiedBy(int[] assignment){
+        for (int k = 0; k < 2 * numClauses; k += 2){
+            if (!isTrue(clauseLiterals[k], assignment) && !isTrue(clauseLiterals[k + 1], assignment)){
+                return false;
+            }
         }
-        return null;
+        return true;
+    }
+
+    private static boolean isTrue(int literal, int[] assignment){
+        return literal > 0 ? assignment[literal - 1] == 1 : assignment[-literal - 1] == 0;
     }
 
     public static void main(String[] args) throws FileNotFoundException {
         //expected answer for 2sat-test1 to 2sat-test4 is true/true/true/false
-        TwoSATFinder tester  = new TwoSATFinder("data/2sat1.txt");
-        //tester.removeRedundantClauses();
-        //tester.printClauses();
-        //tester.printReducedClauses();
-        int[] solution = tester.runTwoSatSearch();
-
-        //if the program takes a long time to run, it is most likely there is no satisfied solution.
-        //Correct answer to the assignment is 101100.
-        if (solution != null){
-            System.out.println("Found a satisfied solution for 2 SAT problem.");
-        }
-        else{
-            System.out.println("A satisfied solution for 2 SAT problem does not exist.");
+        //Correct answer to the assignment is 101100, only 2sat1.txt and 2sat2.txt are bundled in the data folder.
+        //TwoSATBatchRunner solves whole directories of instances in parallel.
+        StringBuilder answer = new StringBuilder();
+        for (int i = 1; i <= 6; i ++){
+            String fileName = "data/2sat" + i + ".txt";
+            if (!new File(fileName).exists()){
+                System.out.println(fileName + " is not in the data folder, skipped.");
+                continue;
+            }
+            long clockStart = System.nanoTime();
+            SolverMetrics metrics = new SolverMetrics(fileName);
+            TwoSATFinder tester = new TwoSATFinder(fileName, metrics);
+            int[] solution = tester.runSCCSolver();
+            double millis = (System.nanoTime() - clockStart) / 1e6;
+            if (solution != null && !tester.isSatisfiedBy(solution)){
+                throw new IllegalStateException("Error: the SCC solver returned a wrong assignment for " + fileName);
+            }
+            System.out.printf("%s is %s (%.1f ms)%n", fileName, solution != null ? "satisfiable" : "unsatisfiable", millis);
+            System.out.println("  preprocessing: " + tester.preprocess());
+            System.out.println("  " + metrics);
+            answer.append(solution != null ? 1 : 0);
         }
+        System.out.println("Answer bits for the bundled instances: " + answer);
     }
 }
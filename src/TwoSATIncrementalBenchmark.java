@@ -0,0 +1,124 @@
+import java.io.FileNotFoundException;
+import java.util.Random;
+
+/**
+ * Project: Coursera Algorithms by Standford University: Shortest Paths Revisited, NP-Complete Problems and What To Do About Them.
+ * Description: Benchmark of TwoSATIncrementalSolver against solving from scratch. It adds 100000 clauses one at a time
+ *              to 2sat1.txt in two streams:
+ *
+ *              satisfiable: every clause has a literal that is true under a satisfying assignment found by the local
+ *                           search, which is not the assignment of the SCC solver, so the instance stays satisfiable
+ *                           and clauses violated by the current assignment have to be repaired
+ *              random:      uniformly random clauses, which make the instance unsatisfiable after a while
+ *
+ *              Solving every prefix from scratch would take hours, so the SCC solver runs on every SAMPLE_INTERVAL-th
+ *              prefix. Its verdict must match the incremental one, and every satisfiable verdict is checked against
+ *              all clauses. The from-scratch time of 100000 additions is extrapolated from the mean of the samples.
+ *
+ *              Usage: java TwoSATIncrementalBenchmark [file [clauses]]
+ *
+ * @author : Zitao He
+ * @date : 2026-10-19 03:10
+ **/
+public class TwoSATIncrementalBenchmark {
+
+    private static final int ADDED_CLAUSES = 100_000;
+    private static final int SAMPLE_INTERVAL = 5_000;
+    private static final long SEED = 42;
+
+    /**
+     * Random clauses of which at least one literal is true under hidden.
+     */
+    static int[] satisfiedClauses(int[] hidden, int count, long seed){
+        Random rand = new Random(seed);
+        int numVariables = hidden.length;
+        int[] literals = new int[2 * count];
+        for (int c = 0; c < count; c ++){
+            int first = rand.nextInt(numVariables) + 1;
+            int second = rand.nextInt(numVariables) + 1;
+            int firstLiteral = hidden[first - 1] == 1 ? first : -first;
+            int secondLiteral = rand.nextBoolean() ? second : -second;
+            boolean swap = rand.nextBoolean();
+            literals[2 * c] = swap ? secondLiteral : firstLiteral;
+            literals[2 * c + 1] = swap ? firstLiteral : secondLiteral;
+        }
+        return literals;
+    }
+
+    static int[] randomClauses(int numVariables, int count, long seed){
+        Random rand = new Random(seed);
+        int[] literals = new int[2 * count];
+        for (int k = 0; k < 2 * count; k ++){
+            int variable = rand.nextInt(numVariables) + 1;
+            literals[k] = rand.nextBoolean() ? variable : -variable;
+        }
+        return literals;
+    }
+
+    private static void run(String name, TwoSATFinder finder, int[] added, int count){
+        long clockStart = System.nanoTime();
+        TwoSATIncrementalSolver solver = finder.toIncrementalSolver();
+        double initialMillis = (System.nanoTime() - clockStart) / 1e6;
+
+        double incrementalMillis = 0;
+        double scratchMillis = 0;
+        int numSamples = 0;
+        int firstUnsatisfiable = -1;
+        for (int c = 0; c < count; c ++){
+            long time = System.nanoTime();
+            TwoSATResult.Verdict verdict = solver.addClause(added[2 * c], added[2 * c + 1]);
+            incrementalMillis += (System.nanoTime() - time) / 1e6;
+            if (verdict == TwoSATResult.Verdict.UNSATISFIABLE && firstUnsatisfiable < 0){
+                firstUnsatisfiable = c + 1;
+            }
+            if ((c + 1) % SAMPLE_INTERVAL == 0 || c + 1 == count){
+                int[] literals = solver.getClauseLiterals();
+                time = System.nanoTime();
+                TwoSATSCCSolver scratch = new TwoSATSCCSolver(solver.getNumVariables(), literals, solver.getNumClauses());
+                boolean satisfiable = scratch.solve();
+                scratchMillis += (System.nanoTime() - time) / 1e6;
+                numSamples ++;
+                if (satisfiable != (verdict == TwoSATResult.Verdict.SATISFIABLE)){
+                    throw new IllegalStateException("Error: " + name + " gives " + verdict + " after " + (c + 1)
+                            + " clauses, solving from scratch doesn't.");
+                }
+                if (satisfiable && !satisfies(solver.getAssignment(), literals, solver.getNumClauses())){
+                    throw new IllegalStateException("Error: " + name + " keeps an assignment that violates a clause after "
+                            + (c + 1) + " clauses.");
+                }
+            }
+        }
+        double scratchPerClause = scratchMillis / numSamples;
+        System.out.printf("%-12s initial=%7.1f ms  incremental=%8.1f ms (%6.2f us/clause)  "
+                        + "from scratch=%7.2f ms/clause (%.0f s for all)  speedup=%8.0fx%n",
+                name, initialMillis, incrementalMillis, 1000 * incrementalMillis / count, scratchPerClause,
+                scratchPerClause * count / 1000, scratchPerClause * count / incrementalMillis);
+        System.out.println("             " + solver
+                + (firstUnsatisfiable > 0 ? ", unsatisfiable from clause " + firstUnsatisfiable : ""));
+    }
+
+    private static boolean satisfies(int[] assignment, int[] literals, int numClauses){
+        for (int k = 0; k < 2 * numClauses; k += 2){
+            if (!isTrue(literals[k], assignment) && !isTrue(literals[k + 1], assignment)){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isTrue(int literal, int[] assignment){
+        return literal > 0 ? assignment[literal - 1] == 1 : assignment[-literal - 1] == 0;
+    }
+
+    public static void main(String[] args) throws FileNotFoundException {
+        String fileName = args.length > 0 ? args[0] : "data/2sat1.txt";
+        int count = args.length > 1 ? Integer.parseInt(args[1]) : ADDED_CLAUSES;
+        TwoSATFinder finder = new TwoSATFinder(fileName);
+        finder.setSeed(SEED);
+        int[] hidden = finder.runTwoSatSearch();
+        if (hidden != null){
+            run("satisfiable", finder, satisfiedClauses(hidden, count, SEED), count);
+        }
+        run("random", finder, randomClauses(finder.getNumVariables(), count, SEED), count);
+    }
+}
@@ -0,0 +1,270 @@
+import java.util.Arrays;
+
+/**
+ * Project: Coursera Algorithms by Standford University: Shortest Paths Revisited, NP-Complete Problems and What To Do About Them.
+ * Description: 2SAT instance that takes new clauses after it was solved, see TwoSATFinder.toIncrementalSolver().
+ *              It keeps a satisfying assignment and the implication graph (numbering of TwoSATSCCSolver) in forward-star
+ *              form, head[u] and a next pointer per edge, so adding a clause appends two edges in O(1).
+ *
+ *              A new clause (a OR b) is handled by the cheapest step that works:
+ *              1. kept: a or b is true under the assignment, nothing changes.
+ *              2. repaired: make a true, and everything a implies. The propagation starts at a and follows the edges
+ *                 of literals that are false under the assignment. A literal that is already true is marked but not
+ *                 followed, because the clauses it is in are satisfied. It fails when a literal and its negation are
+ *                 both marked. Then b is tried the same way. A success flips the false marked literals, which
+ *                 satisfies every clause: a clause with a newly false literal has the other literal marked.
+ *                 The work is bounded by the literals that actually change and their edges.
+ *              3. full solve: if both propagations fail, the clauses may still be satisfiable with a different
+ *                 assignment, so all of them are solved again with TwoSATSCCSolver.
+ *              An unsatisfiable instance stays unsatisfiable, so later clauses are only recorded.
+ *
+ * @author : Zitao He
+ * @date : 2026-10-19 03:10
+ **/
+public class TwoSATIncrementalSolver {
+
+    private final int numVariables;
+    private int[] clauseLiterals; //clause c is (clauseLiterals[2c] OR clauseLiterals[2c + 1])
+    private int numClauses;
+    private final int[] head; //first edge leaving each node, -1 if none
+    private int[] edgeTargets;
+    private int[] edgeNext; //next edge leaving the same node, -1 at the end
+    private int numEdges;
+    private int[] assignment; //null once the clauses are unsatisfiable
+
+    //state of the running propagation: node u is marked if stamp[u] == epoch
+    private final int[] stamp;
+    private int epoch;
+    private final int[] marked;
+    private int numMarked;
+
+    private long numKept;
+    private long numRepaired;
+    private long numFullSolves;
+    private long numFlips;
+
+    /**
+     * Constructor of the solver. Solves the initial clauses with TwoSATSCCSolver.
+     * @param numVariables number of variables, numbered from 1
+     * @param clauseLiterals clause c is (clauseLiterals[2c] OR clauseLiterals[2c + 1]), literal -v means NOT x_v.
+     *                       The array is copied.
+     * @param numClauses number of clauses
+     * @throws IllegalArgumentException if a literal is 0 or out of range
+     */
+    public TwoSATIncrementalSolver(int numVariables, int[] clauseLiterals, int numClauses){
+        this.numVariables = numVariables;
+        checkLiterals(clauseLiterals, 2 * numClauses);
+        this.clauseLiterals = Arrays.copyOf(clauseLiterals, Math.max(2 * numClauses, 16));
+        this.numClauses = numClauses;
+        head = new int[2 * numVariables];
+        Arrays.fill(head, -1);
+        edgeTargets = new int[Math.max(2 * numClauses, 16)];
+        edgeNext = new int[edgeTargets.length];
+        for (int c = 0; c < numClauses; c ++){
+            addEdges(clauseLiterals[2 * c], clauseLiterals[2 * c + 1]);
+        }
+        stamp = new int[2 * numVariables];
+        marked = new int[2 * numVariables];
+        solveFromScratch();
+        numFullSolves = 0; //only count the fallbacks
+    }
+
+    private void checkLiterals(int[] literals, int count){
+        for (int k = 0; k < count; k ++){
+            int literal = literals[k];
+            if (literal == 0 || literal > numVariables || literal < -numVariables){
+                throw new IllegalArgumentException("Error: literal " + literal + " is out of range 1.." + numVariables + ".");
+            }
+        }
+    }
+
+    /**
+     * Add the clause (a OR b) and keep or repair the assignment.
+     * @param a first literal, v for x_v and -v for NOT x_v
+     * @param b second literal
+     * @return SATISFIABLE if all clauses so far can be satisfied, getAssignment() then satisfies them, else UNSATISFIABLE
+     * @throws IllegalArgumentException if a literal is 0 or out of range
+     */
+    public TwoSATResult.Verdict addClause(int a, int b){
+        return addClauses(new int[]{a, b}, 1);
+    }
+
+    /**
+     * Add a batch of clauses and keep or repair the assignment. The clauses violated by the assignment are repaired
+     * one after the other, and the first one that can't be repaired leads to one full solve of all clauses.
+     * @param literals clause c of the batch is (literals[2c] OR literals[2c + 1])
+     * @param count number of clauses in the batch
+     * @return SATISFIABLE if all clauses so far can be satisfied, getAssignment() then satisfies them, else UNSATISFIABLE
+     * @throws IllegalArgumentException if a literal is 0 or out of range, then none of the batch is added
+     */
+    public TwoSATResult.Verdict addClauses(int[] literals, int count){
+        checkLiterals(literals, 2 * count);
+        int first = numClauses;
+        if (2 * (numClauses + count) > clauseLiterals.length){
+            clauseLiterals = Arrays.copyOf(clauseLiterals, Math.max(2 * (numClauses + count), 2 * clauseLiterals.length));
+        }
+        System.arraycopy(literals, 0, clauseLiterals, 2 * numClauses, 2 * count);
+        numClauses += count;
+        for (int c = 0; c < count; c ++){
+            addEdges(literals[2 * c], literals[2 * c + 1]);
+        }
+        if (assignment == null){
+            return TwoSATResult.Verdict.UNSATISFIABLE;
+        }
+
+        for (int c = first; c < numClauses; c ++){
+            int a = TwoSATSCCSolver.node(clauseLiterals[2 * c]);
+            int b = TwoSATSCCSolver.node(clauseLiterals[2 * c + 1]);
+            if (isTrue(a) || isTrue(b)){
+                numKept ++;
+            }
+            else if (propagate(a) || propagate(b)){
+                flipMarked();
+                numRepaired ++;
+            }
+            else {
+                numFullSolves ++;
+                solveFromScratch(); //covers the rest of the batch as well
+                break;
+            }
+        }
+        return assignment != null ? TwoSATResult.Verdict.SATISFIABLE : TwoSATResult.Verdict.UNSATISFIABLE;
+    }
+
+    /**
+     * Clause (a OR b) gives the edges NOT a -> b and NOT b -> a.
+     */
+    private void addEdges(int a, int b){
+        if (numEdges + 2 > edgeTargets.length){
+            edgeTargets = Arrays.copyOf(edgeTargets, 2 * edgeTargets.length);
+            edgeNext = Arrays.copyOf(edgeNext, edgeTargets.length);
+        }
+        addEdge(TwoSATSCCSolver.node(-a), TwoSATSCCSolver.node(b));
+        addEdge(TwoSATSCCSolver.node(-b), TwoSATSCCSolver.node(a));
+    }
+
+    private void addEdge(int from, int to){
+        edgeTargets[numEdges] = to;
+        edgeNext[numEdges] = head[from];
+        head[from] = numEdges ++;
+    }
+
+    /**
+     * Node u is true if its variable has the value of its sign: 1 for x_v (even u), 0 for NOT x_v (odd u).
+     */
+    private boolean isTrue(int u){
+        return assignment[u >> 1] != (u & 1);
+    }
+
+    /**
+     * Mark start and everything it implies through literals that are false under the assignment.
+     * @return false if a literal and its negation were both marked
+     */
+    private boolean propagate(int start){
+        if (++ epoch == Integer.MAX_VALUE){
+            Arrays.fill(stamp, 0);
+            epoch = 1;
+        }
+        numMarked = 0;
+        stamp[start] = epoch;
+        marked[numMarked ++] = start;
+        for (int i = 0; i < numMarked; i ++){
+            int u = marked[i];
+            if (isTrue(u)){
+                continue; //its clauses are satisfied by the assignment already
+            }
+            for (int e = head[u]; e >= 0; e = edgeNext[e]){
+                int w = edgeTargets[e];
+                if (stamp[w ^ 1] == epoch){
+                    return false;
+                }
+                if (stamp[w] != epoch){
+                    stamp[w] = epoch;
+                    marked[numMarked ++] = w;
+                }
+            }
+        }
+        return true;
+    }
+
+    private void flipMarked(){
+        for (int i = 0; i < numMarked; i ++){
+            int u = marked[i];
+            if (!isTrue(u)){
+                assignment[u >> 1] ^= 1;
+                numFlips ++;
+            }
+        }
+    }
+
+    private void solveFromScratch(){
+        TwoSATSCCSolver solver = new TwoSATSCCSolver(numVariables, clauseLiterals, numClauses);
+        assignment = solver.solve() ? solver.getAssignment() : null;
+    }
+
+    public boolean isSatisfiable(){
+        return assignment != null;
+    }
+
+    /**
+     * Get the current assignment.
+     * @return a copy, assignment[v - 1] is 1 if x_v is true and 0 otherwise, or null if the clauses are unsatisfiable
+     */
+    public int[] getAssignment(){
+        return assignment == null ? null : assignment.clone();
+    }
+
+    /**
+     * Get all clauses, the initial ones first.
+     * @return a copy, clause c is (literals[2c] OR literals[2c + 1])
+     */
+    public int[] getClauseLiterals(){
+        return Arrays.copyOf(clauseLiterals, 2 * numClauses);
+    }
+
+    public int getNumVariables(){
+        return numVariables;
+    }
+
+    public int getNumClauses(){
+        return numClauses;
+    }
+
+    /**
+     * Get the number of added clauses the assignment satisfied already.
+     * @return number of kept clauses
+     */
+    public long getNumKept(){
+        return numKept;
+    }
+
+    /**
+     * Get the number of added clauses that were handled by propagation.
+     * @return number of repaired clauses
+     */
+    public long getNumRepaired(){
+        return numRepaired;
+    }
+
+    /**
+     * Get the number of fallbacks to a full solve, the initial solve is not counted.
+     * @return number of full solves
+     */
+    public long getNumFullSolves(){
+        return numFullSolves;
+    }
+
+    /**
+     * Get the number of variables changed by repairs.
+     * @return number of flips
+     */
+    public long getNumFlips(){
+        return numFlips;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d clauses, %s: %d kept, %d repaired (%d flips), %d full solves", numClauses,
+                assignment != null ? "SAT" : "UNSAT", numKept, numRepaired, numFlips, numFullSolves);
+    }
+}
@@ -0,0 +1,214 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Project: Coursera Algorithms by Standford University: Shortest Paths Revisited, NP-Complete Problems and What To Do About Them.
+ * Description: Papadimitriou's randomized local search for 2SAT, used by TwoSATFinder.runTwoSatSearch().
+ *              Each trial starts from a random assignment and repeatedly flips a random variable of a random
+ *              unsatisfied clause, until no clause is unsatisfied or the flip budget of the trial is used up.
+ *
+ *              The state is kept up to date incrementally, so a flip costs O(occurrences of the flipped variable)
+ *              instead of a scan of all clauses:
+ *              - occurrence lists in CSR form: the literal positions (2c or 2c + 1 for clause c) of variable v are
+ *                occurrences[occurrenceOffsets[v - 1] .. occurrenceOffsets[v])
+ *              - trueCount[c]: number of true literals of clause c (0, 1 or 2)
+ *              - unsatisfied clauses in an indexed array: unsatisfied[0 .. numUnsatisfied) and unsatisfiedPosition[c]
+ *                (-1 if c is satisfied), so adding, removing and picking a random one are O(1)
+ *              One SplittableRandom drives the whole search, so a seed reproduces a run.
+ *
+ * @author : Zitao He
+ * @date : 2026-10-18 22:20
+ **/
+public class TwoSATLocalSearch {
+
+    private static final int STOP_CHECK_INTERVAL = 1 << 12; //flips between two reads of the stop flag, a power of 2
+
+    private final int numVariables;
+    private final int numClauses;
+    private final int[] literals;
+    private final int[] occurrenceOffsets;
+    private final int[] occurrences;
+    private final int[] trueCount;
+    private final int[] unsatisfied;
+    private final int[] unsatisfiedPosition;
+    private int numUnsatisfied;
+    private final int[] assignment;
+    private final SplittableRandom random;
+    private long flips;
+    private SolverMetrics metrics; //null if nothing is counted
+    private long reportedFlips; //flips already added to metrics
+
+    /**
+     * Constructor of the local search. Builds the occurrence lists.
+     * @param numVariables number of variables, numbered from 1
+     * @param clauseLiterals clause c is (clauseLiterals[2c] OR clauseLiterals[2c + 1]), literal -v means NOT x_v
+     * @param numClauses number of clauses
+     * @param seed seed of the random generator
+     * @throws IllegalArgumentException if a literal is 0 or out of range
+     */
+    public TwoSATLocalSearch(int numVariables, int[] clauseLiterals, int numClauses, long seed){
+        this.numVariables = numVariables;
+        this.numClauses = numClauses;
+        this.literals = clauseLiterals;
+        occurrenceOffsets = new int[numVariables + 1];
+        occurrences = new int[2 * numClauses];
+        for (int k = 0; k < 2 * numClauses; k ++){
+            int literal = clauseLiterals[k];
+            if (literal == 0 || literal > numVariables || literal < -numVariables){
+                throw new IllegalArgumentException("Error: literal " + literal + " is out of range 1.." + numVariables + ".");
+            }
+            occurrenceOffsets[Math.abs(literal)] ++; //count occurrences of variable |literal| - 1 one slot to the right
+        }
+        for (int v = 0; v < numVariables; v ++){
+            occurrenceOffsets[v + 1] += occurrenceOffsets[v];
+        }
+        int[] next = new int[numVariables];
+        System.arraycopy(occurrenceOffsets, 0, next, 0, numVariables);
+        for (int k = 0; k < 2 * numClauses; k ++){
+            occurrences[next[Math.abs(clauseLiterals[k]) - 1] ++] = k;
+        }
+        trueCount = new int[numClauses];
+        unsatisfied = new int[numClauses];
+        unsatisfiedPosition = new int[numClauses];
+        assignment = new int[numVariables];
+        random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Run the search.
+     * @param trials number of random restarts
+     * @param flipsPerTrial maximum number of flips per trial
+     * @return satisfying assignment (assignment[v - 1] is 1 if x_v is true, 0 otherwise), or null if none was found
+     */
+    public int[] search(int trials, long flipsPerTrial){
+        return search(trials, flipsPerTrial, null);
+    }
+
+    /**
+     * Run the search until it succeeds, the budget is used up or another thread sets the stop flag.
+     * @param trials number of random restarts
+     * @param flipsPerTrial maximum number of flips per trial
+     * @param stop checked every STOP_CHECK_INTERVAL flips, the search gives up once it is true (null: never stop),
+     *             at the same points the counters are added to the metrics of setMetrics()
+     * @return satisfying assignment (assignment[v - 1] is 1 if x_v is true, 0 otherwise), or null if none was found
+     */
+    public int[] search(int trials, long flipsPerTrial, AtomicBoolean stop){
+        try {
+            return runTrials(trials, flipsPerTrial, stop);
+        } finally {
+            if (metrics != null){
+                report();
+            }
+        }
+    }
+
+    private int[] runTrials(int trials, long flipsPerTrial, AtomicBoolean stop){
+        boolean checks = stop != null || metrics != null;
+        for (int trial = 0; trial < trials; trial ++){
+            if (stop != null && stop.get()){
+                return null;
+            }
+            randomAssignment();
+            if (metrics != null){
+                metrics.add(SolverMetrics.Counter.TWO_SAT_RESTARTS, 1);
+            }
+            for (long flip = 0; flip < flipsPerTrial && numUnsatisfied > 0; flip ++){
+                if ((flip & (STOP_CHECK_INTERVAL - 1)) == 0 && checks){
+                    if (metrics != null){
+                        report();
+                    }
+                    if (stop != null && stop.get()){
+                        return null;
+                    }
+                }
+                int clause = unsatisfied[random.nextInt(numUnsatisfied)];
+                flip(Math.abs(literals[2 * clause + random.nextInt(2)]));
+            }
+            if (numUnsatisfied == 0){
+                return assignment.clone();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Start a trial: draw every variable uniformly at random and rebuild the clause state in O(numVariables + numClauses).
+     */
+    private void randomAssignment(){
+        for (int v = 0; v < numVariables; v ++){
+            assignment[v] = random.nextInt(2);
+        }
+        numUnsatisfied = 0;
+        for (int c = 0; c < numClauses; c ++){
+            trueCount[c] = (isTrue(literals[2 * c]) ? 1 : 0) + (isTrue(literals[2 * c + 1]) ? 1 : 0);
+            unsatisfiedPosition[c] = -1;
+            if (trueCount[c] == 0){
+                addUnsatisfied(c);
+            }
+        }
+    }
+
+    /**
+     * Flip a variable and update the clauses it occurs in.
+     * @param variable variable, numbered from 1
+     */
+    private void flip(int variable){
+        assignment[variable - 1] ^= 1;
+        flips ++;
+        for (int o = occurrenceOffsets[variable - 1]; o < occurrenceOffsets[variable]; o ++){
+            int position = occurrences[o];
+            int clause = position >> 1;
+            if (isTrue(literals[position])){
+                if (trueCount[clause] ++ == 0){
+                    removeUnsatisfied(clause);
+                }
+            }
+            else if (-- trueCount[clause] == 0){
+                addUnsatisfied(clause);
+            }
+        }
+    }
+
+    private boolean isTrue(int literal){
+        return literal > 0 ? assignment[literal - 1] == 1 : assignment[-literal - 1] == 0;
+    }
+
+    private void addUnsatisfied(int clause){
+        unsatisfiedPosition[clause] = numUnsatisfied;
+        unsatisfied[numUnsatisfied ++] = clause;
+    }
+
+    /**
+     * Swap-remove: the last unsatisfied clause takes the place of the removed one.
+     */
+    private void removeUnsatisfied(int clause){
+        int position = unsatisfiedPosition[clause];
+        int last = unsatisfied[-- numUnsatisfied];
+        unsatisfied[position] = last;
+        unsatisfiedPosition[last] = position;
+        unsatisfiedPosition[clause] = -1;
+    }
+
+    /**
+     * Count flips, restarts and the unsatisfied clauses in metrics, every STOP_CHECK_INTERVAL flips.
+     * @param metrics metrics to count in, null (the default) to count nothing
+     */
+    public void setMetrics(SolverMetrics metrics){
+        this.metrics = metrics;
+    }
+
+    private void report(){
+        metrics.add(SolverMetrics.Counter.TWO_SAT_FLIPS, flips - reportedFlips);
+        reportedFlips = flips;
+        metrics.set(SolverMetrics.Counter.TWO_SAT_UNSATISFIED, numUnsatisfied);
+        metrics.progress();
+    }
+
+    /**
+     * Get the number of flips made by all search() calls.
+     * @return number of flips
+     */
+    public long getFlips(){
+        return flips;
+    }
+}
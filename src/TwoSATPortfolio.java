@@ -0,0 +1,129 @@
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Project: Coursera Algorithms by Standford University: Shortest Paths Revisited, NP-Complete Problems and What To Do About Them.
+ * Description: Portfolio of independent local-search trials (see TwoSATLocalSearch) run concurrently on a fixed thread pool.
+ *              Trial i gets its own TwoSATLocalSearch, so its own assignment and its own generator seeded with
+ *              trialSeed(baseSeed, i). The seeds only depend on the base seed, so any trial can be replayed alone
+ *              with runTrial(). The first trial that finds a satisfying assignment sets a shared stop flag,
+ *              which the other trials read every few thousand flips. A wall-clock budget stops all trials the same way
+ *              and the result is then UNKNOWN.
+ *
+ * @author : Zitao He
+ * @date : 2026-10-18 22:50
+ **/
+public class TwoSATPortfolio {
+
+    private final int numVariables;
+    private final int[] clauseLiterals;
+    private final int numClauses;
+    private SolverMetrics metrics; //shared by the trials, null if nothing is counted
+
+    /**
+     * Constructor of the portfolio.
+     * @param numVariables number of variables, numbered from 1
+     * @param clauseLiterals clause c is (clauseLiterals[2c] OR clauseLiterals[2c + 1]), literal -v means NOT x_v
+     * @param numClauses number of clauses
+     */
+    public TwoSATPortfolio(int numVariables, int[] clauseLiterals, int numClauses){
+        this.numVariables = numVariables;
+        this.clauseLiterals = clauseLiterals;
+        this.numClauses = numClauses;
+    }
+
+    /**
+     * Count the flips and restarts of all trials in metrics, see TwoSATLocalSearch.setMetrics().
+     * @param metrics metrics to count in, null (the default) to count nothing
+     */
+    public void setMetrics(SolverMetrics metrics){
+        this.metrics = metrics;
+    }
+
+    /**
+     * Seed of a trial, derived from the base seed with the SplitMix64 finalizer so that neighbouring trials
+     * get unrelated generators.
+     * @param baseSeed seed of the whole portfolio run
+     * @param trial trial index
+     * @return seed of the trial
+     */
+    public static long trialSeed(long baseSeed, int trial){
+        long z = baseSeed + (trial + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Run one trial. With the seed of a portfolio result this replays the winning trial on the calling thread.
+     * @param seed seed of the trial
+     * @param flipsPerTrial maximum number of flips
+     * @param stop stop flag, or null
+     * @return satisfying assignment, or null
+     */
+    public int[] runTrial(long seed, long flipsPerTrial, AtomicBoolean stop){
+        TwoSATLocalSearch search = new TwoSATLocalSearch(numVariables, clauseLiterals, numClauses, seed);
+        search.setMetrics(metrics);
+        return search.search(1, flipsPerTrial, stop);
+    }
+
+    /**
+     * Run the portfolio.
+     * @param threads number of worker threads
+     * @param trials number of trials
+     * @param flipsPerTrial maximum number of flips per trial
+     * @param baseSeed seed the trial seeds are derived from
+     * @param budgetMillis wall-clock budget in milliseconds, 0 for no budget
+     * @return SATISFIABLE with the assignment and the winning trial, or UNKNOWN if no trial succeeded in time
+     */
+    public TwoSATResult run(int threads, int trials, long flipsPerTrial, long baseSeed, long budgetMillis){
+        if (threads < 1 || trials < 0 || budgetMillis < 0){
+            throw new IllegalArgumentException("Error: need at least 1 thread and non-negative trials and budget.");
+        }
+        long deadline = budgetMillis == 0 ? Long.MAX_VALUE : System.nanoTime() + budgetMillis * 1_000_000L;
+        AtomicBoolean stop = new AtomicBoolean();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "2sat-portfolio");
+            thread.setDaemon(true); //a trial that misses the stop flag can't keep the JVM alive
+            return thread;
+        });
+        ExecutorCompletionService<int[]> completion = new ExecutorCompletionService<>(pool);
+        try {
+            Future<?>[] futures = new Future<?>[trials];
+            for (int trial = 0; trial < trials; trial ++){
+                long seed = trialSeed(baseSeed, trial);
+                futures[trial] = completion.submit(() -> runTrial(seed, flipsPerTrial, stop));
+            }
+            for (int done = 0; done < trials; done ++){
+                long remaining = deadline - System.nanoTime();
+                Future<int[]> future = deadline == Long.MAX_VALUE ? completion.take()
+                        : completion.poll(Math.max(0, remaining), TimeUnit.NANOSECONDS);
+                if (future == null){
+                    return TwoSATResult.unknown(); //out of time
+                }
+                int[] assignment = future.get();
+                if (assignment != null){
+                    int trial = 0;
+                    while (futures[trial] != future){
+                        trial ++;
+                    }
+                    return TwoSATResult.satisfiable(assignment, trial, trialSeed(baseSeed, trial));
+                }
+            }
+            return TwoSATResult.unknown();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return TwoSATResult.unknown();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error: a local search trial failed.", e.getCause());
+        } finally {
+            stop.set(true);
+            pool.shutdownNow();
+        }
+    }
+}
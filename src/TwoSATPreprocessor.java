@@ -0,0 +1,315 @@
+import java.util.Arrays;
+
+/**
+ * Project: Coursera Algorithms by Standford University: Shortest Paths Revisited, NP-Complete Problems and What To Do About Them.
+ * Description: O(n + m) simplification of a 2SAT instance, used by TwoSATFinder before the local search.
+ *
+ *              1. Tautologies (x OR NOT x) are dropped, clauses (x OR x) become unit clauses x, and duplicate clauses
+ *                 ((a OR b) and (b OR a) included) are dropped. Duplicates are found by bucketing the clauses on their
+ *                 smaller literal and stamping the larger one, without hashing.
+ *              2. A worklist assigns literals until nothing changes. Literals are numbered like the nodes of
+ *                 TwoSATSCCSolver and count[l] is the number of live clauses containing literal l.
+ *                 - unit: a forced literal l is set true. Clauses with l are satisfied and removed, clauses with NOT l
+ *                   lose that literal and force their other literal. Forcing both x and NOT x proves unsatisfiability.
+ *                 - pure: a literal l with count[NOT l] == 0 is set true, which satisfies and removes its clauses.
+ *                 Removing a clause decrements the counts of its literals, a literal whose count drops to 0 makes its
+ *                 negation pure. Every clause is removed at most once, so the worklist does O(n + m) work in total.
+ *              The remaining clauses only contain unassigned variables and are satisfiable iff the input is, and any
+ *              satisfying assignment of them, completed with getValues(), satisfies the input.
+ *
+ * @author : Zitao He
+ * @date : 2026-10-18 23:10
+ **/
+public class TwoSATPreprocessor {
+
+    private final int numVariables;
+    private final int[] values; //1 or 0 for assigned variables, -1 for free ones
+    private int[] reducedLiterals;
+    private int numReducedClauses;
+    private boolean unsatisfiable;
+
+    private int numInputClauses;
+    private int numTautologies;
+    private int numDuplicates;
+    private int numUnitAssignments;
+    private int numPureAssignments;
+    private double millis;
+
+    //worklist state, only used while running
+    private int[] occurrenceOffsets;
+    private int[] occurrences; //clause indices, clause c is in the lists of both its literals
+    private int[] literals;
+    private boolean[] alive;
+    private int[] count;
+    private int[] unitQueue;
+    private int unitHead, unitTail;
+    private int[] pureQueue;
+    private int pureHead, pureTail;
+
+    /**
+     * Simplify an instance.
+     * @param numVariables number of variables, numbered from 1
+     * @param clauseLiterals clause c is (clauseLiterals[2c] OR clauseLiterals[2c + 1]), literal -v means NOT x_v
+     * @param numClauses number of clauses
+     * @throws IllegalArgumentException if a literal is 0 or out of range
+     */
+    public TwoSATPreprocessor(int numVariables, int[] clauseLiterals, int numClauses){
+        this.numVariables = numVariables;
+        this.numInputClauses = numClauses;
+        values = new int[numVariables];
+        Arrays.fill(values, -1);
+        long clockStart = System.nanoTime();
+        for (int k = 0; k < 2 * numClauses; k ++){
+            int literal = clauseLiterals[k];
+            if (literal == 0 || literal > numVariables || literal < -numVariables){
+                throw new IllegalArgumentException("Error: literal " + literal + " is out of range 1.." + numVariables + ".");
+            }
+        }
+        int numNodes = 2 * numVariables;
+        unitQueue = new int[numNodes + numClauses];
+        pureQueue = new int[numNodes];
+        normalize(clauseLiterals, numClauses);
+        propagate();
+        if (!unsatisfiable){
+            reducedLiterals = new int[2 * numReducedClauses];
+            int size = 0;
+            for (int c = 0; c < alive.length; c ++){
+                if (alive[c]){
+                    reducedLiterals[size ++] = literal(literals[2 * c]);
+                    reducedLiterals[size ++] = literal(literals[2 * c + 1]);
+                }
+            }
+        }
+        else {
+            reducedLiterals = new int[0];
+            numReducedClauses = 0;
+        }
+        occurrenceOffsets = occurrences = literals = count = unitQueue = pureQueue = null;
+        alive = null;
+        millis = (System.nanoTime() - clockStart) / 1e6;
+    }
+
+    /**
+     * Step 1: drop tautologies and duplicates, queue unit clauses and build the occurrence lists of the rest.
+     */
+    private void normalize(int[] clauseLiterals, int numClauses){
+        int numNodes = 2 * numVariables;
+        //bucket the proper clauses (two different variables) on their smaller node
+        int[] bucketOffsets = new int[numNodes + 1];
+        for (int c = 0; c < numClauses; c ++){
+            int a = TwoSATSCCSolver.node(clauseLiterals[2 * c]);
+            int b = TwoSATSCCSolver.node(clauseLiterals[2 * c + 1]);
+            if (a == b){
+                unitQueue[unitTail ++] = a;
+            }
+            else if ((a ^ 1) == b){
+                numTautologies ++;
+            }
+            else {
+                bucketOffsets[Math.min(a, b) + 1] ++;
+            }
+        }
+        for (int u = 0; u < numNodes; u ++){
+            bucketOffsets[u + 1] += bucketOffsets[u];
+        }
+        int numProper = bucketOffsets[numNodes];
+        int[] larger = new int[numProper];
+        int[] next = Arrays.copyOf(bucketOffsets, numNodes);
+        for (int c = 0; c < numClauses; c ++){
+            int a = TwoSATSCCSolver.node(clauseLiterals[2 * c]);
+            int b = TwoSATSCCSolver.node(clauseLiterals[2 * c + 1]);
+            if (a >> 1 != b >> 1){
+                larger[next[Math.min(a, b)] ++] = Math.max(a, b);
+            }
+        }
+
+        //keep the first clause of every (smaller, larger) pair, stamp[larger] is valid while it equals smaller + 1
+        int[] stamp = new int[numNodes];
+        literals = new int[2 * numProper];
+        count = new int[numNodes];
+        int size = 0;
+        for (int u = 0; u < numNodes; u ++){
+            for (int e = bucketOffsets[u]; e < bucketOffsets[u + 1]; e ++){
+                int v = larger[e];
+                if (stamp[v] == u + 1){
+                    numDuplicates ++;
+                    continue;
+                }
+                stamp[v] = u + 1;
+                literals[2 * size] = u;
+                literals[2 * size + 1] = v;
+                count[u] ++;
+                count[v] ++;
+                size ++;
+            }
+        }
+        numReducedClauses = size;
+        alive = new boolean[size];
+        Arrays.fill(alive, true);
+
+        occurrenceOffsets = new int[numNodes + 1];
+        for (int k = 0; k < 2 * size; k ++){
+            occurrenceOffsets[literals[k] + 1] ++;
+        }
+        for (int u = 0; u < numNodes; u ++){
+            occurrenceOffsets[u + 1] += occurrenceOffsets[u];
+        }
+        occurrences = new int[2 * size];
+        next = Arrays.copyOf(occurrenceOffsets, numNodes);
+        for (int k = 0; k < 2 * size; k ++){
+            occurrences[next[literals[k]] ++] = k >> 1;
+        }
+        for (int u = 0; u < numNodes; u ++){
+            if (count[u] > 0 && count[u ^ 1] == 0){
+                pureQueue[pureTail ++] = u;
+            }
+        }
+    }
+
+    /**
+     * Step 2: the worklist. Units go first, since a pure literal is only a choice while a unit is forced.
+     */
+    private void propagate(){
+        while (!unsatisfiable){
+            if (unitHead < unitTail){
+                int u = unitQueue[unitHead ++];
+                int assigned = values[u >> 1];
+                if (assigned == -1){
+                    numUnitAssignments ++;
+                    assign(u);
+                }
+                else if (assigned != value(u)){
+                    unsatisfiable = true;
+                }
+            }
+            else if (pureHead < pureTail){
+                int u = pureQueue[pureHead ++];
+                if (values[u >> 1] == -1){
+                    numPureAssignments ++;
+                    assign(u);
+                }
+            }
+            else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Set literal node u true and remove the clauses that contain it or its negation.
+     */
+    private void assign(int u){
+        values[u >> 1] = value(u);
+        for (int o = occurrenceOffsets[u]; o < occurrenceOffsets[u + 1]; o ++){
+            int c = occurrences[o];
+            if (alive[c]){
+                removeClause(c); //satisfied
+            }
+        }
+        int negation = u ^ 1;
+        for (int o = occurrenceOffsets[negation]; o < occurrenceOffsets[negation + 1]; o ++){
+            int c = occurrences[o];
+            if (alive[c]){
+                removeClause(c);
+                int other = literals[2 * c] == negation ? literals[2 * c + 1] : literals[2 * c];
+                unitQueue[unitTail ++] = other; //NOT u is false, so the other literal is forced
+            }
+        }
+    }
+
+    private void removeClause(int c){
+        alive[c] = false;
+        numReducedClauses --;
+        for (int k = 2 * c; k < 2 * c + 2; k ++){
+            int u = literals[k];
+            if (-- count[u] == 0 && count[u ^ 1] > 0 && values[u >> 1] == -1){
+                pureQueue[pureTail ++] = u ^ 1;
+            }
+        }
+    }
+
+    /**
+     * Value that makes literal node u true.
+     */
+    private static int value(int u){
+        return (u & 1) == 0 ? 1 : 0;
+    }
+
+    /**
+     * Inverse of TwoSATSCCSolver.node().
+     */
+    private static int literal(int u){
+        return (u & 1) == 0 ? (u >> 1) + 1 : -((u >> 1) + 1);
+    }
+
+    /**
+     * Check if the preprocessing found a contradiction, then the instance is unsatisfiable.
+     * @return true if some variable was forced both true and false
+     */
+    public boolean isUnsatisfiable(){
+        return unsatisfiable;
+    }
+
+    /**
+     * Get the remaining clauses, in the layout of the input.
+     * @return literals, clause c is (literals[2c] OR literals[2c + 1]), empty if the instance is unsatisfiable
+     */
+    public int[] getReducedLiterals(){
+        return reducedLiterals.clone();
+    }
+
+    public int getNumReducedClauses(){
+        return numReducedClauses;
+    }
+
+    /**
+     * Get the values fixed by the preprocessing.
+     * @return values[v - 1] is 1 or 0 if variable v was assigned by a unit or pure literal, -1 if it is free
+     */
+    public int[] getValues(){
+        return values.clone();
+    }
+
+    /**
+     * Overwrite the entries of an assignment of the remaining clauses with the values fixed by the preprocessing.
+     * @param assignment assignment[v - 1] is 1 if variable v is true and 0 if it is false, changed in place
+     */
+    public void completeAssignment(int[] assignment){
+        for (int v = 0; v < numVariables; v ++){
+            if (values[v] != -1){
+                assignment[v] = values[v];
+            }
+        }
+    }
+
+    public int getNumTautologies(){
+        return numTautologies;
+    }
+
+    public int getNumDuplicates(){
+        return numDuplicates;
+    }
+
+    public int getNumUnitAssignments(){
+        return numUnitAssignments;
+    }
+
+    public int getNumPureAssignments(){
+        return numPureAssignments;
+    }
+
+    /**
+     * Get the time the preprocessing took.
+     * @return wall-clock time in milliseconds
+     */
+    public double getMillis(){
+        return millis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d -> %d clauses (%d tautologies, %d duplicates, %d unit and %d pure assignments%s) in %.1f ms",
+                numInputClauses, numReducedClauses, numTautologies, numDuplicates, numUnitAssignments,
+                numPureAssignments, unsatisfiable ? ", UNSATISFIABLE" : "", millis);
+    }
+}
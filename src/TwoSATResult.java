@@ -0,0 +1,75 @@
+/**
+ * Project: Coursera Algorithms by Standford University: Shortest Paths Revisited, NP-Complete Problems and What To Do About Them.
+ * Description: Result of a 2SAT run. Local search can only prove satisfiability: if it gives up or runs out of time
+ *              the verdict is UNKNOWN, not UNSATISFIABLE. For a satisfiable result found by the portfolio search the
+ *              seed of the winning trial is kept, TwoSATPortfolio.runTrial() with that seed replays the trial.
+ *
+ * @author : Zitao He
+ * @date : 2026-10-18 22:50
+ **/
+public class TwoSATResult {
+
+    /**
+     * Outcome of a 2SAT run.
+     */
+    public enum Verdict { SATISFIABLE, UNSATISFIABLE, UNKNOWN }
+
+    private final Verdict verdict;
+    private final int[] assignment; //null unless SATISFIABLE
+    private final int winningTrial; //-1 if no trial of a portfolio found the assignment
+    private final long seed;
+
+    private TwoSATResult(Verdict verdict, int[] assignment, int winningTrial, long seed){
+        this.verdict = verdict;
+        this.assignment = assignment;
+        this.winningTrial = winningTrial;
+        this.seed = seed;
+    }
+
+    /**
+     * Create a satisfiable result.
+     * @param assignment assignment[v - 1] is 1 if variable v is true and 0 if it is false
+     * @param winningTrial index of the portfolio trial that found it, -1 if it was not found by a trial
+     * @param seed seed of that trial
+     * @return result with verdict SATISFIABLE
+     */
+    public static TwoSATResult satisfiable(int[] assignment, int winningTrial, long seed){
+        return new TwoSATResult(Verdict.SATISFIABLE, assignment, winningTrial, seed);
+    }
+
+    public static TwoSATResult unsatisfiable(){
+        return new TwoSATResult(Verdict.UNSATISFIABLE, null, -1, 0);
+    }
+
+    public static TwoSATResult unknown(){
+        return new TwoSATResult(Verdict.UNKNOWN, null, -1, 0);
+    }
+
+    public Verdict getVerdict(){
+        return verdict;
+    }
+
+    /**
+     * Get the satisfying assignment.
+     * @return assignment[v - 1] is 1 if variable v is true and 0 if it is false, or null unless the verdict is SATISFIABLE
+     */
+    public int[] getAssignment(){
+        return assignment == null ? null : assignment.clone();
+    }
+
+    public int getWinningTrial(){
+        return winningTrial;
+    }
+
+    public long getSeed(){
+        return seed;
+    }
+
+    @Override
+    public String toString() {
+        if (verdict == Verdict.SATISFIABLE && winningTrial >= 0){
+            return "TwoSATResult{" + verdict + ", trial=" + winningTrial + ", seed=" + seed + '}';
+        }
+        return "TwoSATResult{" + verdict + '}';
+    }
+}
@@ -0,0 +1,156 @@
+import java.util.Arrays;
+
+/**
+ * Project: Coursera Algorithms by Standford University: Shortest Paths Revisited, NP-Complete Problems and What To Do About Them.
+ * Description: Deterministic O(n + m) 2SAT solver based on strongly connected components, used by TwoSATFinder.runSCCSolver().
+ *
+ *              1. Build the implication graph: two nodes per variable, literal x_v is node 2(v-1) and NOT x_v is node
+ *                 2(v-1)+1, so the negation of node u is u ^ 1. Clause (a OR b) gives the edges NOT a -> b and NOT b -> a.
+ *                 The graph is stored in compressed sparse row form (offsets, targets).
+ *              2. Run Tarjan's SCC algorithm. It is iterative with explicit stacks, so a long implication chain
+ *                 can't overflow the thread stack.
+ *              3. The instance is unsatisfiable iff some x_v and NOT x_v are in the same component.
+ *                 Otherwise Tarjan completes components in reverse topological order, and setting x_v true iff the
+ *                 component of x_v completes before the component of NOT x_v gives a satisfying assignment.
+ *
+ * @author : Zitao He
+ * @date : 2026-10-18 21:50
+ **/
+public class TwoSATSCCSolver {
+
+    private final int numVariables;
+    private final int numNodes;
+    private final int[] offsets;
+    private final int[] targets;
+    private int[] component; //component of every node, numbered in the order Tarjan completes them
+    private int[] assignment;
+
+    /**
+     * Constructor of the solver. Builds the implication graph.
+     * @param numVariables number of variables, numbered from 1
+     * @param clauseLiterals clause c is (clauseLiterals[2c] OR clauseLiterals[2c + 1]), literal -v means NOT x_v
+     * @param numClauses number of clauses
+     * @throws IllegalArgumentException if a literal is 0 or out of range
+     */
+    public TwoSATSCCSolver(int numVariables, int[] clauseLiterals, int numClauses){
+        this.numVariables = numVariables;
+        this.numNodes = 2 * numVariables;
+        offsets = new int[numNodes + 1];
+        targets = new int[2 * numClauses];
+        for (int k = 0; k < 2 * numClauses; k ++){
+            int literal = clauseLiterals[k];
+            if (literal == 0 || literal > numVariables || literal < -numVariables){
+                throw new IllegalArgumentException("Error: literal " + literal + " is out of range 1.." + numVariables + ".");
+            }
+            offsets[node(-literal) + 1] ++; //the edge leaving NOT literal, counted one slot to the right
+        }
+        for (int u = 0; u < numNodes; u ++){
+            offsets[u + 1] += offsets[u];
+        }
+        int[] next = Arrays.copyOf(offsets, numNodes);
+        for (int c = 0; c < numClauses; c ++){
+            int first = clauseLiterals[2 * c];
+            int second = clauseLiterals[2 * c + 1];
+            targets[next[node(-first)] ++] = node(second);
+            targets[next[node(-second)] ++] = node(first);
+        }
+    }
+
+    /**
+     * Map a literal to its node in the implication graph.
+     * @param literal v for x_v, -v for NOT x_v
+     * @return 2(v-1) for x_v, 2(v-1)+1 for NOT x_v
+     */
+    static int node(int literal){
+        return literal > 0 ? 2 * (literal - 1) : 2 * (-literal - 1) + 1;
+    }
+
+    /**
+     * Decide the instance.
+     * @return true if it is satisfiable, getAssignment() then returns a satisfying assignment
+     */
+    public boolean solve(){
+        computeComponents();
+        assignment = new int[numVariables];
+        for (int v = 0; v < numVariables; v ++){
+            int positive = component[2 * v];
+            int negative = component[2 * v + 1];
+            if (positive == negative){
+                assignment = null;
+                return false;
+            }
+            assignment[v] = positive < negative ? 1 : 0;
+        }
+        return true;
+    }
+
+    /**
+     * Iterative Tarjan. callStack holds the DFS path, edgeCursor[u] the next out-edge of u to look at.
+     */
+    private void computeComponents(){
+        int[] index = new int[numNodes]; //DFS discovery index + 1, 0 if not visited yet
+        int[] low = new int[numNodes];
+        int[] edgeCursor = new int[numNodes];
+        int[] callStack = new int[numNodes];
+        int[] sccStack = new int[numNodes];
+        boolean[] onStack = new boolean[numNodes];
+        component = new int[numNodes];
+        int nextIndex = 1;
+        int numComponents = 0;
+        int sccSize = 0;
+
+        for (int root = 0; root < numNodes; root ++){
+            if (index[root] != 0){
+                continue;
+            }
+            int depth = 0;
+            callStack[depth ++] = root;
+            index[root] = low[root] = nextIndex ++;
+            edgeCursor[root] = offsets[root];
+            sccStack[sccSize ++] = root;
+            onStack[root] = true;
+
+            while (depth > 0){
+                int u = callStack[depth - 1];
+                if (edgeCursor[u] < offsets[u + 1]){
+                    int v = targets[edgeCursor[u] ++];
+                    if (index[v] == 0){
+                        //descend into v
+                        index[v] = low[v] = nextIndex ++;
+                        edgeCursor[v] = offsets[v];
+                        sccStack[sccSize ++] = v;
+                        onStack[v] = true;
+                        callStack[depth ++] = v;
+                    }
+                    else if (onStack[v]){
+                        low[u] = Math.min(low[u], index[v]);
+                    }
+                    continue;
+                }
+                //all edges of u are done, u is the root of a component if low[u] == index[u]
+                if (low[u] == index[u]){
+                    int w;
+                    do {
+                        w = sccStack[-- sccSize];
+                        onStack[w] = false;
+                        component[w] = numComponents;
+                    } while (w != u);
+                    numComponents ++;
+                }
+                depth --;
+                if (depth > 0){
+                    int parent = callStack[depth - 1];
+                    low[parent] = Math.min(low[parent], low[u]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the satisfying assignment found by solve().
+     * @return assignment[v - 1] is 1 if x_v is true and 0 if it is false, or null if the instance is unsatisfiable
+     */
+    public int[] getAssignment(){
+        return assignment == null ? null : assignment.clone();
+    }
+}